@@ -0,0 +1,99 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Draws a {@link LeftDrawerLayout} with the scale transition and the blur scrim and checks that
+ * the blur stays inside the scaled content.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BlurScrimRendererTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_WIDTH = 720;
+    private static final long BLUR_TIMEOUT_MS = 2000;
+
+    @Test
+    public void blurFollowsScaledContent() throws Exception {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final BlurScrimRenderer renderer = new BlurScrimRenderer();
+        final LeftDrawerLayout[] drawerLayout = new LeftDrawerLayout[1];
+        final Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final Runnable draw = new Runnable() {
+            @Override
+            public void run() {
+                bitmap.eraseColor(Color.TRANSPARENT);
+                drawerLayout[0].draw(canvas);
+            }
+        };
+
+        // The blur is captured and delivered on the main thread.
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                drawerLayout[0] = createDrawerLayout(context);
+                drawerLayout[0].setContentTransition(LeftDrawerLayout.CONTENT_TRANSITION_SCALE);
+                drawerLayout[0].setContentMinScale(0.5f);
+                drawerLayout[0].setScrimColor(Color.TRANSPARENT);
+                drawerLayout[0].setScrimRenderer(renderer);
+                drawerLayout[0].setDrawerViewOffset(drawerLayout[0].findDrawer(), 1f);
+                drawerLayout[0].requestLayout();
+                layout(drawerLayout[0]);
+            }
+        });
+        final long deadline = System.currentTimeMillis() + BLUR_TIMEOUT_MS;
+        while (!renderer.isBlurReady() && System.currentTimeMillis() < deadline) {
+            instrumentation.runOnMainSync(draw);
+            Thread.sleep(20);
+            instrumentation.waitForIdleSync();
+        }
+        assertTrue(renderer.isBlurReady());
+        instrumentation.runOnMainSync(draw);
+
+        // The content is scaled to half its size around the middle of its left edge, the
+        // strips above and below it show what is behind the layout.
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(WIDTH - 1, HEIGHT / 4 - 1));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(WIDTH - 1, HEIGHT * 3 / 4 + 1));
+        assertEquals(Color.RED, bitmap.getPixel(WIDTH - 1, HEIGHT / 2));
+        bitmap.recycle();
+    }
+
+    private static LeftDrawerLayout createDrawerLayout(Context context) {
+        final FrameDrawerView drawer = new FrameDrawerView(context);
+        drawer.setBackgroundColor(Color.WHITE);
+        final FrameContentView content = new FrameContentView(context);
+        content.setBackgroundColor(Color.RED);
+
+        final LeftDrawerLayout drawerLayout = new LeftDrawerLayout(context);
+        drawerLayout.addView(drawer, new LeftDrawerLayout.LayoutParams(
+                DRAWER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        drawerLayout.addView(content, new LeftDrawerLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        layout(drawerLayout);
+        return drawerLayout;
+    }
+
+    private static void layout(View view) {
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
@@ -0,0 +1,89 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the number of times the RelativeLayout based containers and the single pass
+ * containers measure their children. The counts are logged under {@link #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContainerMeasurePassTest {
+
+    private static final String TAG = "ContainerMeasurePass";
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_WIDTH = 720;
+
+    @Test
+    public void relativeContainersMeasureTwice() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final int[] counts = measureChildren(context, new DrawerView(context), new ContentView(context));
+
+        Log.i(TAG, "DrawerView/ContentView: drawer child " + counts[0]
+                + ", content child " + counts[1]);
+        assertEquals(2, counts[0]);
+        assertEquals(2, counts[1]);
+    }
+
+    @Test
+    public void frameContainersMeasureOnce() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final int[] counts = measureChildren(context,
+                new FrameDrawerView(context), new FrameContentView(context));
+
+        Log.i(TAG, "FrameDrawerView/FrameContentView: drawer child " + counts[0]
+                + ", content child " + counts[1]);
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+    }
+
+    /**
+     * @return the measure passes of the drawer's and the content's child for one layout pass
+     */
+    private static int[] measureChildren(Context context, ViewGroup drawer, ViewGroup content) {
+        final CountingView drawerChild = new CountingView(context);
+        final CountingView contentChild = new CountingView(context);
+        drawer.addView(drawerChild, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        content.addView(contentChild, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        final LeftDrawerLayout drawerLayout = new LeftDrawerLayout(context);
+        drawerLayout.addView(drawer, new LeftDrawerLayout.LayoutParams(
+                DRAWER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        drawerLayout.addView(content, new LeftDrawerLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        drawerLayout.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        drawerLayout.layout(0, 0, WIDTH, HEIGHT);
+
+        return new int[] {drawerChild.measureCount, contentChild.measureCount};
+    }
+
+    static class CountingView extends View {
+        int measureCount;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+}
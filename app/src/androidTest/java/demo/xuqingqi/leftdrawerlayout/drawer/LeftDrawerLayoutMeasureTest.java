@@ -0,0 +1,127 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the measure and layout passes each child of a {@link LeftDrawerLayout} goes through.
+ * The savings come from the early returns in View.measure and View.layout, these guard against
+ * onMeasure or onLayout forcing a pass on a child that did not ask for one.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LeftDrawerLayoutMeasureTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_WIDTH = 720;
+
+    private LeftDrawerLayout mDrawerLayout;
+    private CountingDrawerView mDrawer;
+    private CountingContentView mContent;
+
+    @Before
+    public void setUp() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        mDrawerLayout = new LeftDrawerLayout(context);
+        mDrawer = new CountingDrawerView(context);
+        mContent = new CountingContentView(context);
+        mDrawerLayout.addView(mDrawer, new LeftDrawerLayout.LayoutParams(
+                DRAWER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        mDrawerLayout.addView(mContent, new LeftDrawerLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        measureAndLayout(WIDTH, HEIGHT);
+        assertEquals(1, mDrawer.measureCount);
+        assertEquals(1, mContent.measureCount);
+        assertEquals(1, mDrawer.layoutCount);
+        assertEquals(1, mContent.layoutCount);
+    }
+
+    @Test
+    public void contentRelayoutSkipsDrawer() throws Exception {
+        mContent.requestLayout();
+        measureAndLayout(WIDTH, HEIGHT);
+
+        assertEquals(1, mDrawer.measureCount);
+        assertEquals(1, mDrawer.layoutCount);
+        assertEquals(2, mContent.measureCount);
+        assertEquals(2, mContent.layoutCount);
+    }
+
+    @Test
+    public void drawerRelayoutSkipsContent() throws Exception {
+        mDrawer.requestLayout();
+        measureAndLayout(WIDTH, HEIGHT);
+
+        assertEquals(2, mDrawer.measureCount);
+        assertEquals(2, mDrawer.layoutCount);
+        assertEquals(1, mContent.measureCount);
+        assertEquals(1, mContent.layoutCount);
+    }
+
+    @Test
+    public void changedSpecsMeasureBothChildren() throws Exception {
+        measureAndLayout(HEIGHT, WIDTH);
+
+        assertEquals(2, mDrawer.measureCount);
+        assertEquals(2, mContent.measureCount);
+    }
+
+    private void measureAndLayout(int width, int height) {
+        mDrawerLayout.measure(
+                View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mDrawerLayout.layout(0, 0, width, height);
+    }
+
+    static class CountingDrawerView extends DrawerView {
+        int measureCount;
+        int layoutCount;
+
+        CountingDrawerView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            layoutCount++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+
+    static class CountingContentView extends ContentView {
+        int measureCount;
+        int layoutCount;
+
+        CountingContentView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            layoutCount++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Draws the frames of a drag with each {@link ScrimRenderer} into a counting canvas and logs
+ * the fill operations and the overdraw per frame under {@link #TAG}.
+ *
+ * The frames are drawn in software, so a hardware layer shows up as one bitmap draw of the
+ * layer. Overdraw is the filled area relative to the layout area, clipped to the canvas clip.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScrimRendererBenchmark {
+
+    private static final String TAG = "ScrimRendererBenchmark";
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_WIDTH = 720;
+    private static final int FRAMES = 30;
+
+    @Test
+    public void rectScrim() throws Exception {
+        run("rect", new RectScrimRenderer());
+    }
+
+    @Test
+    public void layerPaintScrim() throws Exception {
+        run("layer paint", new LayerPaintScrimRenderer());
+    }
+
+    @Test
+    public void overlayScrim() throws Exception {
+        run("overlay", new OverlayScrimRenderer());
+    }
+
+    private static void run(String name, ScrimRenderer renderer) {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final LeftDrawerLayout drawerLayout = createDrawerLayout(context);
+        drawerLayout.setScrimRenderer(renderer);
+        final View drawer = drawerLayout.findDrawer();
+
+        final Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        final CountingCanvas canvas = new CountingCanvas(bitmap);
+        long ops = 0;
+        double overdraw = 0;
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            drawerLayout.setDrawerViewOffset(drawer, 1f * frame / FRAMES);
+            drawerLayout.requestLayout();
+            layout(drawerLayout);
+
+            canvas.reset();
+            drawerLayout.draw(canvas);
+            ops += canvas.ops;
+            overdraw += (double) canvas.area / (WIDTH * HEIGHT);
+        }
+        bitmap.recycle();
+
+        Log.i(TAG, name + ": " + ((float) ops / FRAMES) + " fill ops/frame, "
+                + ((float) overdraw / FRAMES) + "x overdraw/frame");
+        assertTrue(ops > 0);
+    }
+
+    private static LeftDrawerLayout createDrawerLayout(Context context) {
+        final FrameDrawerView drawer = new FrameDrawerView(context);
+        drawer.setBackgroundColor(Color.WHITE);
+        final FrameContentView content = new FrameContentView(context);
+        content.setBackgroundColor(Color.LTGRAY);
+
+        final LeftDrawerLayout drawerLayout = new LeftDrawerLayout(context);
+        drawerLayout.addView(drawer, new LeftDrawerLayout.LayoutParams(
+                DRAWER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        drawerLayout.addView(content, new LeftDrawerLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        layout(drawerLayout);
+        return drawerLayout;
+    }
+
+    private static void layout(View view) {
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    static class CountingCanvas extends Canvas {
+        int ops;
+        long area;
+
+        private final Rect mClip = new Rect();
+        private final Rect mFill = new Rect();
+
+        CountingCanvas(Bitmap bitmap) {
+            super(bitmap);
+        }
+
+        void reset() {
+            ops = 0;
+            area = 0;
+        }
+
+        private void count(float left, float top, float right, float bottom) {
+            ops++;
+            if (!getClipBounds(mClip)) {
+                return;
+            }
+            mFill.set((int) left, (int) top, (int) Math.ceil(right), (int) Math.ceil(bottom));
+            if (mFill.intersect(mClip)) {
+                area += (long) mFill.width() * mFill.height();
+            }
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+            count(left, top, right, bottom);
+            super.drawRect(left, top, right, bottom, paint);
+        }
+
+        @Override
+        public void drawRect(RectF rect, Paint paint) {
+            count(rect.left, rect.top, rect.right, rect.bottom);
+            super.drawRect(rect, paint);
+        }
+
+        @Override
+        public void drawRect(Rect r, Paint paint) {
+            count(r.left, r.top, r.right, r.bottom);
+            super.drawRect(r, paint);
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            count(left, top, left + bitmap.getWidth(), top + bitmap.getHeight());
+            super.drawBitmap(bitmap, left, top, paint);
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+            count(dst.left, dst.top, dst.right, dst.bottom);
+            super.drawBitmap(bitmap, src, dst, paint);
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+            count(dst.left, dst.top, dst.right, dst.bottom);
+            super.drawBitmap(bitmap, src, dst, paint);
+        }
+
+        @Override
+        public void drawColor(int color) {
+            count(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+            super.drawColor(color);
+        }
+
+        @Override
+        public void drawPaint(Paint paint) {
+            count(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+            super.drawPaint(paint);
+        }
+    }
+}
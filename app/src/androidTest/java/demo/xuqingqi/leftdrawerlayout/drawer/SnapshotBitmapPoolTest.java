@@ -0,0 +1,50 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SnapshotBitmapPoolTest {
+
+    @Test
+    public void reusesBitmapOfSameSize() throws Exception {
+        final SnapshotBitmapPool pool = new SnapshotBitmapPool();
+        final Bitmap first = pool.acquire(100, 200);
+        pool.release(first);
+
+        assertSame(first, pool.acquire(100, 200));
+    }
+
+    @Test
+    public void keysBySize() throws Exception {
+        final SnapshotBitmapPool pool = new SnapshotBitmapPool();
+        final Bitmap first = pool.acquire(100, 200);
+        pool.release(first);
+
+        final Bitmap other = pool.acquire(200, 100);
+        assertNotSame(first, other);
+        assertEquals(200, other.getWidth());
+        assertEquals(100, other.getHeight());
+    }
+
+    @Test
+    public void trimMemoryRecyclesPooledBitmaps() throws Exception {
+        final SnapshotBitmapPool pool = new SnapshotBitmapPool();
+        final Bitmap first = pool.acquire(100, 200);
+        pool.release(first);
+
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertTrue(first.isRecycled());
+        assertNotSame(first, pool.acquire(100, 200));
+    }
+}
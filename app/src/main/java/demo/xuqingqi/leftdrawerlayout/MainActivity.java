@@ -20,6 +20,7 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import demo.xuqingqi.leftdrawerlayout.drawer.BackdropImageView;
 import demo.xuqingqi.leftdrawerlayout.drawer.LeftDrawerLayout;
 
 public class MainActivity extends AppCompatActivity {
@@ -27,7 +28,7 @@ public class MainActivity extends AppCompatActivity {
     private NavigationView navigationView;
     private LeftDrawerLayout drawerLayout;
     private View headerView;
-    private ImageView iv_main_story;
+    private BackdropImageView iv_main_story;
     private View head_bar;
     private View rl_toggle;
     private ImageView iv_toggle;
@@ -55,6 +56,8 @@ public class MainActivity extends AppCompatActivity {
         rl_toggle = findView(R.id.rl_toggle);
         iv_toggle = findView(R.id.iv_toggle);
 
+        iv_main_story.setDrawerLayout(drawerLayout);
+
         headerView = navigationView.getHeaderView(0);
         TextView nameText = (TextView) headerView.findViewById(R.id.header_username);
         nameText.setText("xuqingqi");
@@ -0,0 +1,86 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.widget.ImageView;
+
+/**
+ * ImageView placed behind a {@link LeftDrawerLayout}. Once attached with
+ * {@link #setDrawerLayout(LeftDrawerLayout)} it only draws the strip the content reveals and
+ * draws nothing at all while the drawer is closed. The strip is applied with
+ * {@link #setClipBounds(Rect)}, which hardware accelerated windows on API 21 and up update
+ * without drawing the image again.
+ */
+
+public class BackdropImageView extends ImageView
+        implements LeftDrawerLayout.OnRevealedRegionChangeListener {
+
+    private LeftDrawerLayout mDrawerLayout;
+    private final Rect mDrawClip = new Rect();
+    private final int[] mTmpLocation = new int[2];
+    private final int[] mTmpDrawerLocation = new int[2];
+
+    public BackdropImageView(Context context) {
+        super(context);
+    }
+
+    public BackdropImageView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public BackdropImageView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public BackdropImageView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+    /**
+     * @param drawerLayout the layout covering this view, or null to always draw in full
+     */
+    public void setDrawerLayout(LeftDrawerLayout drawerLayout) {
+        if (mDrawerLayout == drawerLayout) {
+            return;
+        }
+        if (mDrawerLayout != null) {
+            mDrawerLayout.removeOnRevealedRegionChangeListener(this);
+        }
+        mDrawerLayout = drawerLayout;
+        if (drawerLayout != null) {
+            drawerLayout.addOnRevealedRegionChangeListener(this);
+            drawerLayout.getRevealedRegion(mDrawClip);
+            onRevealedRegionChanged(drawerLayout, mDrawClip);
+        } else {
+            setClipBounds(null);
+        }
+    }
+
+    @Override
+    public void onRevealedRegionChanged(LeftDrawerLayout drawerLayout, Rect revealed) {
+        mDrawClip.set(revealed);
+        if (!mDrawClip.isEmpty()) {
+            // Map from the drawer layout's coordinates into ours.
+            drawerLayout.getLocationInWindow(mTmpDrawerLocation);
+            getLocationInWindow(mTmpLocation);
+            mDrawClip.offset(mTmpDrawerLocation[0] - mTmpLocation[0],
+                    mTmpDrawerLocation[1] - mTmpLocation[1]);
+        }
+        // An empty clip, fully covered by the content, draws nothing.
+        setClipBounds(mDrawClip);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (changed && mDrawerLayout != null) {
+            mDrawerLayout.getRevealedRegion(mDrawClip);
+            onRevealedRegionChanged(mDrawerLayout, mDrawClip);
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Approximates a gaussian blur of ARGB pixels with repeated box blurs. Each box blur is a
+ * horizontal and a vertical pass, both with a running sum so the cost does not depend on the
+ * radius.
+ *
+ * Large images can be split into bands that are blurred on an executor. Plain Java, so it can
+ * run and be measured off the device.
+ */
+final class BlurKernel {
+
+    /** Below this many pixels the bands cost more to hand out than they save. */
+    static final int MIN_PARALLEL_PIXELS = 128 * 128;
+
+    private BlurKernel() {
+    }
+
+    /**
+     * Blur the pixels in place.
+     *
+     * @param pixels      width * height ARGB pixels, row by row
+     * @param scratch     a buffer at least as large as pixels
+     * @param passes      number of box blurs, 3 is visually close to a gaussian
+     * @param executor    runs all but one band, may be null to blur on the calling thread only
+     * @param parallelism number of bands, including the one of the calling thread. The executor
+     *                    must not run on the calling thread.
+     */
+    static void blur(final int[] pixels, final int[] scratch, final int width, final int height,
+                     final int radius, int passes, ExecutorService executor, int parallelism)
+            throws InterruptedException {
+        if (pixels.length < width * height || scratch.length < width * height) {
+            throw new IllegalArgumentException("Buffers are smaller than " + width + "x" + height);
+        }
+        if (radius < 1 || width == 0 || height == 0) {
+            return;
+        }
+        if (executor == null || width * height < MIN_PARALLEL_PIXELS) {
+            parallelism = 1;
+        }
+
+        // sum / div for every possible channel sum, cheaper than dividing per pixel.
+        final int div = radius * 2 + 1;
+        final int[] quotients = new int[256 * div];
+        for (int i = 0; i < quotients.length; i++) {
+            quotients[i] = i / div;
+        }
+
+        // Both passes blur rows and write them transposed, the second one back into place,
+        // so that the pixels are always read sequentially.
+        for (int i = 0; i < passes; i++) {
+            runBands(executor, parallelism, height, new Band() {
+                @Override
+                public void run(int from, int to) {
+                    blurRowsTransposed(pixels, scratch, width, height, radius, quotients, from, to);
+                }
+            });
+            runBands(executor, parallelism, width, new Band() {
+                @Override
+                public void run(int from, int to) {
+                    blurRowsTransposed(scratch, pixels, height, width, radius, quotients, from, to);
+                }
+            });
+        }
+    }
+
+    private interface Band {
+        void run(int from, int to);
+    }
+
+    private static void runBands(ExecutorService executor, int parallelism, int count,
+                                 final Band band) throws InterruptedException {
+        parallelism = Math.min(parallelism, count);
+        if (parallelism <= 1) {
+            band.run(0, count);
+            return;
+        }
+
+        final Future<?>[] futures = new Future<?>[parallelism - 1];
+        final int bandSize = (count + parallelism - 1) / parallelism;
+        for (int i = 0; i < futures.length; i++) {
+            final int from = i * bandSize;
+            final int to = Math.min(count, from + bandSize);
+            futures[i] = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    band.run(from, to);
+                }
+            });
+        }
+        band.run(futures.length * bandSize, count);
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * Box blur rows [fromRow, toRow) of the width * height src, and write them as columns of
+     * the height * width dst.
+     */
+    static void blurRowsTransposed(int[] src, int[] dst, int width, int height, int radius,
+                                   int[] quotients, int fromRow, int toRow) {
+        final int last = width - 1;
+        for (int y = fromRow; y < toRow; y++) {
+            final int offset = y * width;
+            int a = 0, r = 0, g = 0, b = 0;
+            for (int i = -radius; i <= radius; i++) {
+                final int p = src[offset + Math.min(Math.max(i, 0), last)];
+                a += p >>> 24;
+                r += (p >> 16) & 0xff;
+                g += (p >> 8) & 0xff;
+                b += p & 0xff;
+            }
+            int target = y;
+            for (int x = 0; x < width; x++) {
+                dst[target] = quotients[a] << 24 | quotients[r] << 16 | quotients[g] << 8
+                        | quotients[b];
+                target += height;
+
+                final int out = src[offset + Math.max(x - radius, 0)];
+                final int in = src[offset + Math.min(x + radius + 1, last)];
+                a += (in >>> 24) - (out >>> 24);
+                r += ((in >> 16) & 0xff) - ((out >> 16) & 0xff);
+                g += ((in >> 8) & 0xff) - ((out >> 8) & 0xff);
+                b += (in & 0xff) - (out & 0xff);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewParent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Frosted glass scrim: a blurred copy of the content is faded in over the content as the
+ * drawer opens, under the flat scrim color.
+ *
+ * When the drawer starts to open the content is drawn into a downsampled bitmap on the UI
+ * thread, and blurred on a background thread. Until the blur is ready the flat scrim is drawn
+ * alone. The blur is reused for the rest of the gesture unless the content invalidates, in
+ * which case it is recomputed while the previous one stays on screen.
+ *
+ * Only the blur runs off the UI thread. Each capture is a software draw() of the whole content
+ * hierarchy on the UI thread, the same cost as the content snapshot of
+ * {@link LeftDrawerLayout#setContentSnapshotEnabled(boolean)}. Content that keeps invalidating
+ * during a drag pays it again each time a blur completes. Content that only renders in
+ * hardware, such as a TextureView or a SurfaceView, is missing from the capture.
+ */
+public class BlurScrimRenderer extends ScrimRenderer {
+
+    private static final int DEFAULT_DOWNSAMPLE = 8;
+    private static final int DEFAULT_BLUR_RADIUS = 4;
+    private static final int BLUR_PASSES = 3;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static ExecutorService sBlurExecutor;
+    private static ExecutorService sBandExecutor;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Paint mScrimPaint = new Paint();
+    private final Paint mBlurPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mBlurBounds = new Rect();
+    private final Canvas mCaptureCanvas = new Canvas();
+
+    private int mDownsample = DEFAULT_DOWNSAMPLE;
+    private int mBlurRadius = DEFAULT_BLUR_RADIUS;
+
+    private View mContentView;
+    private float mProgress;
+
+    // Only touched by the blur thread while mBlurPending.
+    private Bitmap mCapture;
+    private int[] mPixels;
+    private int[] mScratch;
+
+    private Bitmap mBlurred;
+    private boolean mBlurReady;
+    private boolean mBlurStale;
+    private boolean mBlurPending;
+    private boolean mCaptureScheduled;
+    private int mGeneration;
+
+    private final Runnable mCaptureRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mCaptureScheduled = false;
+            captureAndBlur();
+        }
+    };
+
+    /**
+     * @param downsample the content is captured at 1/downsample of its size
+     */
+    public void setDownsample(int downsample) {
+        mDownsample = Math.max(1, downsample);
+        invalidateBlur();
+    }
+
+    /**
+     * @param radius blur radius in pixels of the downsampled capture
+     */
+    public void setBlurRadius(int radius) {
+        mBlurRadius = Math.max(1, radius);
+        invalidateBlur();
+    }
+
+    @Override
+    public void onAttach(View contentView) {
+        mContentView = contentView;
+    }
+
+    @Override
+    public void onDetach(View contentView) {
+        mContentView = null;
+        mHandler.removeCallbacks(mCaptureRunnable);
+        mCaptureScheduled = false;
+        invalidateBlur();
+    }
+
+    @Override
+    public void onDrawerProgress(View contentView, float progress) {
+        if (progress <= 0) {
+            // Closed, the next gesture captures the content again.
+            invalidateBlur();
+        } else if (mProgress <= 0) {
+            scheduleCapture();
+        }
+        mProgress = progress;
+    }
+
+    @Override
+    public void onScrimChanged(View contentView, int scrimColor) {
+        mScrimPaint.setColor(scrimColor);
+    }
+
+    @Override
+    public void onContentInvalidated(View contentView) {
+        if (mBlurReady || mBlurPending) {
+            mBlurStale = true;
+            scheduleCapture();
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas, View contentView, int left, int top, int right, int bottom) {
+        if (mBlurReady) {
+            // The blur covers the content as it is drawn, scaled by the scale transition, and
+            // like the flat scrim it stays inside the bounds.
+            mBlurBounds.set(left, top,
+                    left + (int) (contentView.getWidth() * ViewCompat.getScaleX(contentView)),
+                    top + (int) (contentView.getHeight() * ViewCompat.getScaleY(contentView)));
+            mBlurPaint.setAlpha((int) (255 * Math.min(1f, mProgress)));
+            final int restoreCount = canvas.save();
+            canvas.clipRect(left, top, right, bottom);
+            canvas.drawBitmap(mBlurred, null, mBlurBounds, mBlurPaint);
+            canvas.restoreToCount(restoreCount);
+        } else {
+            scheduleCapture();
+        }
+        canvas.drawRect(left, top, right, bottom, mScrimPaint);
+    }
+
+    boolean isBlurReady() {
+        return mBlurReady;
+    }
+
+    @Override
+    public boolean drawsInParent() {
+        return true;
+    }
+
+    private void invalidateBlur() {
+        // A running blur still owns the buffers, its result is dropped on delivery.
+        mGeneration++;
+        mBlurReady = false;
+        mBlurStale = false;
+    }
+
+    private void scheduleCapture() {
+        // Capture outside of the frame that noticed the need, content is never drawn mid-draw.
+        if (!mCaptureScheduled && mContentView != null) {
+            mCaptureScheduled = true;
+            mHandler.post(mCaptureRunnable);
+        }
+    }
+
+    private void captureAndBlur() {
+        final View contentView = mContentView;
+        if (contentView == null || mBlurPending || mProgress <= 0
+                || mBlurReady && !mBlurStale
+                || contentView.getWidth() <= 0 || contentView.getHeight() <= 0) {
+            return;
+        }
+        final int width = Math.max(1, contentView.getWidth() / mDownsample);
+        final int height = Math.max(1, contentView.getHeight() / mDownsample);
+        if (mCapture == null || mCapture.getWidth() != width || mCapture.getHeight() != height) {
+            mCapture = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mPixels = new int[width * height];
+            mScratch = new int[width * height];
+        }
+
+        mCapture.eraseColor(Color.TRANSPARENT);
+        mCaptureCanvas.setBitmap(mCapture);
+        mCaptureCanvas.save();
+        mCaptureCanvas.scale((float) width / contentView.getWidth(),
+                (float) height / contentView.getHeight());
+        contentView.draw(mCaptureCanvas);
+        mCaptureCanvas.restore();
+        mCaptureCanvas.setBitmap(null);
+        mCapture.getPixels(mPixels, 0, width, 0, 0, width, height);
+
+        mBlurStale = false;
+        mBlurPending = true;
+        final int generation = ++mGeneration;
+        final int[] pixels = mPixels;
+        final int[] scratch = mScratch;
+        final int radius = mBlurRadius;
+        getBlurExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                try {
+                    BlurKernel.blur(pixels, scratch, width, height, radius, BLUR_PASSES,
+                            getBandExecutor(), PARALLELISM);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onBlurFinished(generation, pixels, width, height);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onBlurFinished(int generation, int[] pixels, int width, int height) {
+        mBlurPending = false;
+        if (generation != mGeneration || mContentView == null) {
+            // Dropped, a capture requested meanwhile waited for the buffers.
+            scheduleCapture();
+            return;
+        }
+        if (mBlurred == null || mBlurred.getWidth() != width || mBlurred.getHeight() != height) {
+            mBlurred = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        mBlurred.setPixels(pixels, 0, width, 0, 0, width, height);
+        mBlurReady = true;
+
+        // Redraw the parent only, invalidating the content would report it as changed.
+        final ViewParent parent = mContentView.getParent();
+        if (parent instanceof View) {
+            ((View) parent).invalidate();
+        }
+        if (mBlurStale) {
+            scheduleCapture();
+        }
+    }
+
+    private static synchronized ExecutorService getBlurExecutor() {
+        if (sBlurExecutor == null) {
+            sBlurExecutor = Executors.newSingleThreadExecutor(new BlurThreadFactory());
+        }
+        return sBlurExecutor;
+    }
+
+    /**
+     * @return the executor for the bands the blur thread does not run itself, or null on a
+     * single core
+     */
+    private static synchronized ExecutorService getBandExecutor() {
+        if (sBandExecutor == null && PARALLELISM > 1) {
+            sBandExecutor = Executors.newFixedThreadPool(PARALLELISM - 1, new BlurThreadFactory());
+        }
+        return sBandExecutor;
+    }
+
+    private static class BlurThreadFactory implements ThreadFactory {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "BlurScrim");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.annotation.TargetApi;
+import android.graphics.Outline;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+/**
+ * Scales the content down around its left edge and gives it rounded, shadowed corners as the
+ * drawer opens. Only view properties are changed: scale, pivot, elevation and the outline,
+ * which the content clips to. Corners and elevation need API 21, before that the content is
+ * only scaled.
+ */
+final class ContentScaleTransition {
+
+    private static final boolean CAN_ROUND_CORNERS =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+
+    private float mMinScale;
+    private float mCornerRadius;
+    private float mElevation;
+
+    private View mContentView;
+    private float mProgress;
+
+    private RoundRectOutlineProvider mOutlineProvider;
+    private ViewOutlineProvider mOutlineProviderBefore;
+    private boolean mClipToOutlineBefore;
+    private float mElevationBefore;
+
+    ContentScaleTransition(float minScale, float cornerRadius, float elevation) {
+        mMinScale = minScale;
+        mCornerRadius = cornerRadius;
+        mElevation = elevation;
+    }
+
+    void setMinScale(float minScale) {
+        mMinScale = minScale;
+        apply();
+    }
+
+    float getMinScale() {
+        return mMinScale;
+    }
+
+    void setCornerRadius(float cornerRadius) {
+        mCornerRadius = cornerRadius;
+        apply();
+    }
+
+    float getCornerRadius() {
+        return mCornerRadius;
+    }
+
+    void setElevation(float elevation) {
+        mElevation = elevation;
+        apply();
+    }
+
+    float getElevation() {
+        return mElevation;
+    }
+
+    void attach(View contentView) {
+        mContentView = contentView;
+        if (CAN_ROUND_CORNERS) {
+            attachOutline(contentView);
+        }
+        apply();
+    }
+
+    void detach() {
+        final View contentView = mContentView;
+        if (contentView == null) {
+            return;
+        }
+        mContentView = null;
+        ViewCompat.setScaleX(contentView, 1f);
+        ViewCompat.setScaleY(contentView, 1f);
+        if (CAN_ROUND_CORNERS) {
+            detachOutline(contentView);
+        }
+    }
+
+    /**
+     * @param progress how far the drawer is open, from 0 to 1
+     */
+    void setProgress(float progress) {
+        mProgress = progress;
+        apply();
+    }
+
+    private void apply() {
+        final View contentView = mContentView;
+        if (contentView == null) {
+            return;
+        }
+        final float scale = 1f - (1f - mMinScale) * mProgress;
+        // Pivot and scale setters return early for unchanged values.
+        ViewCompat.setPivotX(contentView, 0);
+        ViewCompat.setPivotY(contentView, contentView.getHeight() / 2f);
+        ViewCompat.setScaleX(contentView, scale);
+        ViewCompat.setScaleY(contentView, scale);
+        if (CAN_ROUND_CORNERS) {
+            applyOutline(contentView);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void attachOutline(View contentView) {
+        if (mOutlineProvider == null) {
+            mOutlineProvider = new RoundRectOutlineProvider();
+        }
+        mOutlineProviderBefore = contentView.getOutlineProvider();
+        mClipToOutlineBefore = contentView.getClipToOutline();
+        mElevationBefore = contentView.getElevation();
+        contentView.setOutlineProvider(mOutlineProvider);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void detachOutline(View contentView) {
+        contentView.setOutlineProvider(mOutlineProviderBefore);
+        contentView.setClipToOutline(mClipToOutlineBefore);
+        contentView.setElevation(mElevationBefore);
+        mOutlineProviderBefore = null;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void applyOutline(View contentView) {
+        final float radius = mCornerRadius * mProgress;
+        contentView.setElevation(mElevation * mProgress);
+        contentView.setClipToOutline(radius > 0);
+        if (mOutlineProvider.mRadius != radius) {
+            mOutlineProvider.mRadius = radius;
+            // Updates the outline of the RenderNode, the content is not redrawn.
+            contentView.invalidateOutline();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static class RoundRectOutlineProvider extends ViewOutlineProvider {
+        float mRadius;
+
+        @Override
+        public void getOutline(View view, Outline outline) {
+            outline.setRoundRect(0, 0, view.getWidth(), view.getHeight(), mRadius);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package demo.xuqingqi.leftdrawerlayout.drawer;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.v4.view.MotionEventCompat;
-import android.support.v4.view.VelocityTrackerCompat;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.ScrollerCompat;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
@@ -35,8 +39,26 @@ public class DrawerDragHelper {
     public static final int DIRECTION_VERTICAL = 1 << 1;
     public static final int DIRECTION_ALL = DIRECTION_HORIZONTAL | DIRECTION_VERTICAL;
 
+    // Children are moved with offsetLeftAndRight, their left edge is the position.
+    public static final int MOTION_OFFSET = 0;
+    // Children stay at their layout position and are moved with translationX only.
+    public static final int MOTION_TRANSLATION = 1;
+
+    // Settling is driven by a scroller from computeScroll, one draw traversal per frame.
+    public static final int SETTLE_SCROLLER = 0;
+    // Settling is driven by a ValueAnimator that only moves the children, no traversal needed.
+    public static final int SETTLE_ANIMATOR = 1;
+
     private static final int EDGE_SIZE = 20; // dp
 
+    private static final long DEFAULT_FRAME_INTERVAL = 16; // ms
+
+    // Average speed of a movement that is classified before the full touch slop.
+    private static final float MIN_INTENT_VELOCITY = 0.25f; // dp per ms
+
+    // Most pointers the platform reports in one event.
+    private static final int MAX_POINTERS = 16;
+
     private static final int BASE_SETTLE_DURATION = 256; // ms
     private static final int MAX_SETTLE_DURATION = 600; // ms
 
@@ -48,29 +70,77 @@ public class DrawerDragHelper {
 
     // Last known position/pointer tracking
     private int mActivePointerId = INVALID_POINTER;
-    private float[] mInitialMotionX;
-    private float[] mInitialMotionY;
-    private float[] mLastMotionX;
-    private float[] mLastMotionY;
-    private int[] mInitialEdgesTouched;
-    private int[] mEdgeDragsInProgress;
-    private int[] mEdgeDragsLocked;
-    private int mPointersDown;
-
-    private VelocityTracker mVelocityTracker;
+    // Per pointer state is kept in preallocated slots, pointer ids are mapped to the slots so
+    // that any id works. A free slot holds INVALID_POINTER.
+    private final int[] mSlotPointerIds = new int[MAX_POINTERS];
+    private final float[] mInitialMotionX = new float[MAX_POINTERS];
+    private final float[] mInitialMotionY = new float[MAX_POINTERS];
+    private final float[] mLastMotionX = new float[MAX_POINTERS];
+    private final float[] mLastMotionY = new float[MAX_POINTERS];
+    private final int[] mInitialEdgesTouched = new int[MAX_POINTERS];
+    private final int[] mEdgeDragsInProgress = new int[MAX_POINTERS];
+    private final int[] mEdgeDragsLocked = new int[MAX_POINTERS];
+
+    private VelocityEstimator mVelocityEstimator = new LeastSquaresVelocityEstimator();
+
+    // Optional touch prediction. The content is drawn mPredictedOffsetX ahead of where the
+    // pointer actually is, the offset is taken back with the next real sample.
+    private TouchPredictor mTouchPredictor;
+    private int mPredictedOffsetX;
+    private long mFrameInterval = DEFAULT_FRAME_INTERVAL;
+
+    // Optional gesture intent classification of the first pointer, see shouldInterceptTouchEvent.
+    private GestureIntentClassifier mIntentClassifier;
+    private int mIntentPointerId = INVALID_POINTER;
+    private boolean mGestureIgnored;
+
+    // Horizontally scrollable descendant of the content under the first pointer, it keeps the
+    // gestures it can scroll with.
+    private View mDownScrollable;
+    private int mDownPointerId = INVALID_POINTER;
+
+    // The content is dragged by nested scroll deltas instead of touch events.
+    private boolean mNestedDragging;
+
+    // Drag frame coalescing: moves add to the pending offset, one frame callback applies it.
+    // The fraction of a pixel that is not applied stays pending, so nothing is truncated away.
+    private boolean mFrameCoalescingEnabled;
+    private float mPendingDx;
+    private float mPendingDy;
+    private boolean mDragFramePosted;
+    private final Choreographer.FrameCallback mDragFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mDragFramePosted = false;
+                    applyPendingDrag(frameTimeNanos / 1000000 + mFrameInterval);
+                }
+            };
     private float mMaxVelocity;
     private float mMinVelocity;
 
     private int mEdgeSize;
     private int mTrackingEdges;
 
+    private int mMotionMode = MOTION_OFFSET;
+
     private ScrollerCompat mScroller;
 
+    private int mSettleMode = SETTLE_SCROLLER;
+    private ValueAnimator mSettleAnimator;
+    private int mSettleStartLeft;
+    private int mSettleFinalLeft;
+    private boolean mSettleCanceled;
+
     private final Callback mCallback;
 
     private boolean mReleaseInProgress;
+    // The velocity handed to onViewReleased, nested drags have no pointer to estimate it from.
+    private float mReleaseXVelocity;
+    private float mReleaseYVelocity;
 
     private final ViewGroup mParentView;
+    private final LeftDrawerLayout mDrawerLayout;
     private View mDrawerView;
     private View mContentView;
     private static final float DRAWER_ON_SCREEN = LeftDrawerLayout.DRAWER_ON_SCREEN;
@@ -148,7 +218,9 @@ public class DrawerDragHelper {
             throw new IllegalArgumentException("Callback may not be null");
         }
 
+        Arrays.fill(mSlotPointerIds, INVALID_POINTER);
         mParentView = forParent;
+        mDrawerLayout = forParent instanceof LeftDrawerLayout ? (LeftDrawerLayout) forParent : null;
         mCallback = cb;
 
         final ViewConfiguration vc = ViewConfiguration.get(context);
@@ -165,34 +237,210 @@ public class DrawerDragHelper {
         mMinVelocity = minVel;
     }
 
+    /**
+     * Set how release velocities are estimated. Defaults to a
+     * {@link LeastSquaresVelocityEstimator}.
+     */
+    public void setVelocityEstimator(VelocityEstimator estimator) {
+        if (estimator == null) {
+            throw new IllegalArgumentException("Velocity estimator may not be null");
+        }
+        mVelocityEstimator.clear();
+        mVelocityEstimator = estimator;
+    }
+
+    public VelocityEstimator getVelocityEstimator() {
+        return mVelocityEstimator;
+    }
+
+    /**
+     * Draw dragged content where the predictor expects the pointer to be when the next frame
+     * is presented. Null (default) turns prediction off.
+     */
+    public void setTouchPredictor(TouchPredictor predictor) {
+        mTouchPredictor = predictor;
+        mPredictedOffsetX = 0;
+        if (predictor != null) {
+            predictor.reset();
+        }
+    }
+
+    public TouchPredictor getTouchPredictor() {
+        return mTouchPredictor;
+    }
+
+    /**
+     * Classify each gesture from its first samples. A clear horizontal swipe captures the
+     * content before the full touch slop, and a vertical gesture is not tracked any further so
+     * nested vertical lists get it untouched. Off by default.
+     */
+    public void setGestureIntentEnabled(boolean enabled) {
+        if (!enabled) {
+            mIntentClassifier = null;
+            mGestureIgnored = false;
+        } else if (mIntentClassifier == null) {
+            final Context context = mParentView.getContext();
+            final float density = context.getResources().getDisplayMetrics().density;
+            mIntentClassifier = new GestureIntentClassifier(mTouchSlop / 2f, mTouchSlop,
+                    MIN_INTENT_VELOCITY * density, ViewConfiguration.getTapTimeout());
+        }
+    }
+
+    public boolean isGestureIntentEnabled() {
+        return mIntentClassifier != null;
+    }
+
+    /**
+     * Apply drags once per frame instead of once per move event. All moves that arrive before
+     * a frame are summed, with subpixel precision, into one offset update, one
+     * {@link Callback#onViewPositionChanged} and one invalidate. Off by default.
+     */
+    public void setFrameCoalescingEnabled(boolean enabled) {
+        if (mFrameCoalescingEnabled == enabled) {
+            return;
+        }
+        if (!enabled) {
+            applyPendingDrag(SystemClock.uptimeMillis() + mFrameInterval);
+        }
+        mFrameCoalescingEnabled = enabled;
+    }
+
+    public boolean isFrameCoalescingEnabled() {
+        return mFrameCoalescingEnabled;
+    }
+
     public int getViewDragState() {
         return mDragState;
     }
 
+    /**
+     * @param edgeSize width in pixels of the zone along each edge that counts as an edge touch
+     */
+    public void setEdgeSize(int edgeSize) {
+        mEdgeSize = edgeSize;
+    }
+
+    public int getEdgeSize() {
+        return mEdgeSize;
+    }
+
     public void setEdgeTrackingEnabled(int edgeFlags) {
         mTrackingEdges = edgeFlags;
     }
 
+    public void setSettleMode(int settleMode) {
+        mSettleMode = settleMode;
+    }
+
+    public int getSettleMode() {
+        return mSettleMode;
+    }
+
+    public void setMotionMode(int motionMode) {
+        mMotionMode = motionMode;
+    }
+
+    public int getMotionMode() {
+        return mMotionMode;
+    }
+
+    /**
+     * @return the left edge of the child as it is drawn, including translationX in
+     * {@link #MOTION_TRANSLATION} mode.
+     */
+    public int getViewLeft(View child) {
+        if (mMotionMode == MOTION_TRANSLATION) {
+            return child.getLeft() + Math.round(ViewCompat.getTranslationX(child));
+        }
+        return child.getLeft();
+    }
+
     public void captureChildView(View childView, int activePointerId) {
+        cancelAnimatorSettle();
 
         mActivePointerId = activePointerId;
+        mPredictedOffsetX = 0;
+        clearPendingDrag();
+        mFrameInterval = getFrameInterval();
+        if (mTouchPredictor != null) {
+            mTouchPredictor.reset();
+        }
         mCallback.onViewCaptured(childView, activePointerId);
         setDragState(STATE_DRAGGING);
     }
 
+    /**
+     * Capture the content for a drag driven by {@link #nestedDragBy(int)} instead of touch
+     * events, such as the overscroll of a nested scrolling child.
+     *
+     * @return whether the content was captured
+     */
+    public boolean startNestedDrag() {
+        if (mNestedDragging) {
+            return true;
+        }
+        if (!findDrawerChildren() || mDragState == STATE_DRAGGING) {
+            return false;
+        }
+        if (mDragState == STATE_SETTLING) {
+            abort();
+        }
+        cancel();
+        if (!mCallback.tryCaptureView(mContentView, INVALID_POINTER)) {
+            return false;
+        }
+        captureChildView(mContentView, INVALID_POINTER);
+        mNestedDragging = true;
+        return true;
+    }
+
+    /**
+     * Move the content captured by {@link #startNestedDrag()} horizontally.
+     *
+     * @return how far the content actually moved, after clamping
+     */
+    public int nestedDragBy(int dx) {
+        if (!mNestedDragging || dx == 0) {
+            return 0;
+        }
+        final int oldLeft = getViewLeft(mContentView);
+        dragTo(oldLeft + dx, mContentView.getTop(), dx, 0);
+        return getViewLeft(mContentView) - oldLeft;
+    }
+
+    /**
+     * Release the content of a nested drag, as a pointer up with the given velocity would.
+     */
+    public void stopNestedDrag(float xvel) {
+        if (!mNestedDragging) {
+            return;
+        }
+        mNestedDragging = false;
+        if (mDragState == STATE_DRAGGING) {
+            dispatchViewReleased(clampMag(xvel, mMinVelocity, mMaxVelocity), 0);
+        }
+    }
+
+    public boolean isNestedDragging() {
+        return mNestedDragging;
+    }
+
     public void cancel() {
+        clearPendingDrag();
         mActivePointerId = INVALID_POINTER;
+        mDownScrollable = null;
+        mDownPointerId = INVALID_POINTER;
         clearMotionHistory();
-
-        if (mVelocityTracker != null) {
-            mVelocityTracker.recycle();
-            mVelocityTracker = null;
-        }
+        mVelocityEstimator.clear();
     }
 
     public void abort() {
         cancel();
-        if (mDragState == STATE_SETTLING) {
+        mNestedDragging = false;
+        if (isAnimatorSettling()) {
+            // The children stay where the last animation frame put them.
+            cancelAnimatorSettle();
+        } else if (mDragState == STATE_SETTLING) {
             final int oldX = getCurrXCompat();
             final int oldY = getCurrYCompat();
             mScroller.abortAnimation();
@@ -228,12 +476,11 @@ public class DrawerDragHelper {
         }
 
         return forceSettleCapturedViewAt(finalLeft, finalTop,
-                (int) VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
-                (int) VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId));
+                (int) mReleaseXVelocity, (int) mReleaseYVelocity);
     }
 
     private boolean forceSettleCapturedViewAt(int finalLeft, int finalTop, int xvel, int yvel) {
-        final int startLeft = mContentView.getLeft();
+        final int startLeft = getViewLeft(mContentView);
         final int startTop = mContentView.getTop();
         final int dx = finalLeft - startLeft;
         final int dy = finalTop - startTop;
@@ -246,7 +493,11 @@ public class DrawerDragHelper {
         }
 
         final int duration = computeSettleDuration(mContentView, dx, dy, xvel, yvel);
-        startScrollCompat(startLeft, startTop, dx, dy, duration);
+        if (mSettleMode == SETTLE_ANIMATOR && dy == 0) {
+            startAnimatorSettle(startLeft, finalLeft, duration);
+        } else {
+            startScrollCompat(startLeft, startTop, dx, dy, duration);
+        }
 
         setDragState(STATE_SETTLING);
         return true;
@@ -321,20 +572,23 @@ public class DrawerDragHelper {
                     "Callback#onViewReleased");
         }
 
-        mScroller.fling(mContentView.getLeft(), mContentView.getTop(),
-                (int) VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
-                (int) VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId),
+        mScroller.fling(getViewLeft(mContentView), mContentView.getTop(),
+                (int) mReleaseXVelocity, (int) mReleaseYVelocity,
                 minLeft, maxLeft, minTop, maxTop);
 
         setDragState(STATE_SETTLING);
     }
 
     public boolean continueSettling(boolean deferCallbacks) {
+        if (isAnimatorSettling()) {
+            // The animator drives itself, nothing to do from computeScroll.
+            return false;
+        }
         if (mDragState == STATE_SETTLING) {
             boolean keepGoing = mScroller.computeScrollOffset();
             final int x = getCurrXCompat();
             final int y = getCurrYCompat();
-            final int dx = x - mContentView.getLeft();
+            final int dx = x - getViewLeft(mContentView);
             final int dy = y - mContentView.getTop();
 
             if (dx != 0) {
@@ -367,7 +621,69 @@ public class DrawerDragHelper {
         return mDragState == STATE_SETTLING;
     }
 
+    private boolean isAnimatorSettling() {
+        return mSettleAnimator != null && mSettleAnimator.isStarted();
+    }
+
+    private void startAnimatorSettle(int startLeft, int finalLeft, int duration) {
+        if (mSettleAnimator == null) {
+            mSettleAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mSettleAnimator.setInterpolator(sInterpolator);
+            mSettleAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    settleAnimatorTo(animation.getAnimatedFraction());
+                }
+            });
+            mSettleAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationCancel(Animator animation) {
+                    mSettleCanceled = true;
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (!mSettleCanceled) {
+                        // Frames are best effort, the final position and state are exact.
+                        settleAnimatorTo(1f);
+                        setDragState(STATE_IDLE);
+                    }
+                }
+            });
+        }
+
+        cancelAnimatorSettle();
+        mSettleStartLeft = startLeft;
+        mSettleFinalLeft = finalLeft;
+        mSettleCanceled = false;
+        mSettleAnimator.setDuration(duration);
+        mSettleAnimator.start();
+    }
+
+    private void settleAnimatorTo(float fraction) {
+        if (mContentView == null || mDrawerView == null) {
+            return;
+        }
+        final int x = mSettleStartLeft + Math.round((mSettleFinalLeft - mSettleStartLeft) * fraction);
+        final int dx = x - getViewLeft(mContentView);
+        if (dx != 0) {
+            offsetVerticalDrawerChildren(x, dx);
+            mCallback.onViewPositionChanged(mContentView, x, mContentView.getTop(), dx, 0);
+        }
+    }
+
+    private void cancelAnimatorSettle() {
+        if (mSettleAnimator != null) {
+            mSettleAnimator.cancel();
+        }
+    }
+
     private void dispatchViewReleased(float xvel, float yvel) {
+        // The view is released where the pointer was last seen.
+        applyPendingDrag(SystemClock.uptimeMillis() + mFrameInterval);
+
+        mReleaseXVelocity = xvel;
+        mReleaseYVelocity = yvel;
         mReleaseInProgress = true;
         mCallback.onViewReleased(mContentView, xvel, yvel);
         mReleaseInProgress = false;
@@ -379,69 +695,70 @@ public class DrawerDragHelper {
     }
 
     private void clearMotionHistory() {
-        if (mInitialMotionX == null) {
-            return;
-        }
-        Arrays.fill(mInitialMotionX, 0);
-        Arrays.fill(mInitialMotionY, 0);
-        Arrays.fill(mLastMotionX, 0);
-        Arrays.fill(mLastMotionY, 0);
-        Arrays.fill(mInitialEdgesTouched, 0);
-        Arrays.fill(mEdgeDragsInProgress, 0);
-        Arrays.fill(mEdgeDragsLocked, 0);
-        mPointersDown = 0;
+        Arrays.fill(mSlotPointerIds, INVALID_POINTER);
     }
 
     private void clearMotionHistory(int pointerId) {
-        if (mInitialMotionX == null || !isPointerDown(pointerId)) {
-            return;
+        final int slot = findSlot(pointerId);
+        if (slot >= 0) {
+            mSlotPointerIds[slot] = INVALID_POINTER;
+        }
+    }
+
+    /**
+     * @return the slot of the pointer, or -1 if the pointer is not down
+     */
+    private int findSlot(int pointerId) {
+        if (pointerId == INVALID_POINTER) {
+            return -1;
         }
-        mInitialMotionX[pointerId] = 0;
-        mInitialMotionY[pointerId] = 0;
-        mLastMotionX[pointerId] = 0;
-        mLastMotionY[pointerId] = 0;
-        mInitialEdgesTouched[pointerId] = 0;
-        mEdgeDragsInProgress[pointerId] = 0;
-        mEdgeDragsLocked[pointerId] = 0;
-        mPointersDown &= ~(1 << pointerId);
-    }
-
-    private void ensureMotionHistorySizeForId(int pointerId) {
-        if (mInitialMotionX == null || mInitialMotionX.length <= pointerId) {
-            float[] imx = new float[pointerId + 1];
-            float[] imy = new float[pointerId + 1];
-            float[] lmx = new float[pointerId + 1];
-            float[] lmy = new float[pointerId + 1];
-            int[] iit = new int[pointerId + 1];
-            int[] edip = new int[pointerId + 1];
-            int[] edl = new int[pointerId + 1];
-
-            if (mInitialMotionX != null) {
-                System.arraycopy(mInitialMotionX, 0, imx, 0, mInitialMotionX.length);
-                System.arraycopy(mInitialMotionY, 0, imy, 0, mInitialMotionY.length);
-                System.arraycopy(mLastMotionX, 0, lmx, 0, mLastMotionX.length);
-                System.arraycopy(mLastMotionY, 0, lmy, 0, mLastMotionY.length);
-                System.arraycopy(mInitialEdgesTouched, 0, iit, 0, mInitialEdgesTouched.length);
-                System.arraycopy(mEdgeDragsInProgress, 0, edip, 0, mEdgeDragsInProgress.length);
-                System.arraycopy(mEdgeDragsLocked, 0, edl, 0, mEdgeDragsLocked.length);
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] == pointerId) {
+                return slot;
             }
+        }
+        return -1;
+    }
 
-            mInitialMotionX = imx;
-            mInitialMotionY = imy;
-            mLastMotionX = lmx;
-            mLastMotionY = lmy;
-            mInitialEdgesTouched = iit;
-            mEdgeDragsInProgress = edip;
-            mEdgeDragsLocked = edl;
+    /**
+     * @return a cleared slot for a pointer that went down, or -1 if all slots are taken
+     */
+    private int obtainSlot(int pointerId) {
+        int slot = findSlot(pointerId);
+        if (slot < 0) {
+            for (int i = 0; i < MAX_POINTERS && slot < 0; i++) {
+                if (mSlotPointerIds[i] == INVALID_POINTER) {
+                    slot = i;
+                }
+            }
+            if (slot < 0) {
+                return -1;
+            }
+            mSlotPointerIds[slot] = pointerId;
         }
+        mInitialMotionX[slot] = 0;
+        mInitialMotionY[slot] = 0;
+        mLastMotionX[slot] = 0;
+        mLastMotionY[slot] = 0;
+        mInitialEdgesTouched[slot] = 0;
+        mEdgeDragsInProgress[slot] = 0;
+        mEdgeDragsLocked[slot] = 0;
+        return slot;
     }
 
     private void saveInitialMotion(float x, float y, int pointerId) {
-        ensureMotionHistorySizeForId(pointerId);
-        mInitialMotionX[pointerId] = mLastMotionX[pointerId] = x;
-        mInitialMotionY[pointerId] = mLastMotionY[pointerId] = y;
-        mInitialEdgesTouched[pointerId] = getEdgesTouched((int) x, (int) y);
-        mPointersDown |= 1 << pointerId;
+        final int slot = obtainSlot(pointerId);
+        if (slot < 0) {
+            return;
+        }
+        mInitialMotionX[slot] = mLastMotionX[slot] = x;
+        mInitialMotionY[slot] = mLastMotionY[slot] = y;
+        mInitialEdgesTouched[slot] = getEdgesTouched((int) x, (int) y);
+    }
+
+    private int getInitialEdgesTouched(int pointerId) {
+        final int slot = findSlot(pointerId);
+        return slot < 0 ? 0 : mInitialEdgesTouched[slot];
     }
 
     private void saveLastMotion(MotionEvent ev) {
@@ -452,15 +769,14 @@ public class DrawerDragHelper {
             if (!isValidPointerForActionMove(pointerId)) {
                 continue;
             }
-            final float x = MotionEventCompat.getX(ev, i);
-            final float y = MotionEventCompat.getY(ev, i);
-            mLastMotionX[pointerId] = x;
-            mLastMotionY[pointerId] = y;
+            final int slot = findSlot(pointerId);
+            mLastMotionX[slot] = MotionEventCompat.getX(ev, i);
+            mLastMotionY[slot] = MotionEventCompat.getY(ev, i);
         }
     }
 
     public boolean isPointerDown(int pointerId) {
-        return (mPointersDown & 1 << pointerId) != 0;
+        return findSlot(pointerId) >= 0;
     }
 
     void setDragState(int state) {
@@ -475,6 +791,43 @@ public class DrawerDragHelper {
         }
     }
 
+    private void ignoreGesture() {
+        cancel();
+        mGestureIgnored = true;
+    }
+
+    /**
+     * @return whether the drawer is closed and the gesture started over a descendant of the
+     * content that can still scroll along with a finger moving by dx
+     */
+    private boolean isDownOverScrollable(float dx) {
+        return mDownScrollable != null && dx != 0 && getViewLeft(mContentView) <= 0
+                && ViewCompat.canScrollHorizontally(mDownScrollable, dx > 0 ? -1 : 1);
+    }
+
+    private int classifyGesture(MotionEvent ev) {
+        final int index = MotionEventCompat.findPointerIndex(ev, mIntentPointerId);
+        if (index < 0) {
+            return mIntentClassifier.getIntent();
+        }
+        return mIntentClassifier.addSample(ev.getEventTime(), MotionEventCompat.getX(ev, index),
+                MotionEventCompat.getY(ev, index));
+    }
+
+    /**
+     * @return whether the content can move in the direction of a horizontal intent. One
+     * callback call replaces the clamp probe of the touch slop path.
+     */
+    private boolean canDragTowards(int intent) {
+        if (intent == GestureIntentClassifier.INTENT_HORIZONTAL_OPEN) {
+            return getViewLeft(mContentView) < mCallback.getViewHorizontalDragRange(mContentView);
+        }
+        if (intent == GestureIntentClassifier.INTENT_HORIZONTAL_CLOSE) {
+            return getViewLeft(mContentView) > 0;
+        }
+        return false;
+    }
+
     boolean tryCaptureViewForDrag(int pointerId) {
         if (mActivePointerId == pointerId) {
             // Already done!
@@ -524,12 +877,13 @@ public class DrawerDragHelper {
             // Reset things for a new event stream, just in case we didn't get
             // the whole previous stream.
             cancel();
+            mGestureIgnored = false;
         }
-
-        if (mVelocityTracker == null) {
-            mVelocityTracker = VelocityTracker.obtain();
+        if (mGestureIgnored) {
+            return false;
         }
-        mVelocityTracker.addMovement(ev);
+
+        mVelocityEstimator.addMovement(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
@@ -538,12 +892,21 @@ public class DrawerDragHelper {
                 final int pointerId = MotionEventCompat.getPointerId(ev, 0);
                 saveInitialMotion(x, y, pointerId);
 
+                if (mDrawerLayout != null) {
+                    mDownPointerId = pointerId;
+                    mDownScrollable = mDrawerLayout.findScrollableDescendantAt((int) x, (int) y);
+                }
+                if (mIntentClassifier != null) {
+                    mIntentPointerId = pointerId;
+                    mIntentClassifier.start(ev.getEventTime(), x, y);
+                }
+
                 // Catch a settling view if possible.
                 if (mDragState == STATE_SETTLING) {
                     tryCaptureViewForDrag(pointerId);
                 }
 
-                final int edgesTouched = mInitialEdgesTouched[pointerId];
+                final int edgesTouched = getInitialEdgesTouched(pointerId);
                 if ((edgesTouched & mTrackingEdges) != 0) {
                     mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                 }
@@ -559,7 +922,7 @@ public class DrawerDragHelper {
 
                 // A ViewDragHelper can only manipulate one view at a time.
                 if (mDragState == STATE_IDLE) {
-                    final int edgesTouched = mInitialEdgesTouched[pointerId];
+                    final int edgesTouched = getInitialEdgesTouched(pointerId);
                     if ((edgesTouched & mTrackingEdges) != 0) {
                         mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                     }
@@ -570,7 +933,22 @@ public class DrawerDragHelper {
             }
 
             case MotionEvent.ACTION_MOVE: {
-                if (mInitialMotionX == null || mInitialMotionY == null) break;
+                if (mIntentClassifier != null && mDragState != STATE_DRAGGING) {
+                    final int intent = classifyGesture(ev);
+                    if (intent == GestureIntentClassifier.INTENT_VERTICAL
+                            || intent == GestureIntentClassifier.INTENT_HORIZONTAL_OPEN
+                            && isDownOverScrollable(1)
+                            || intent == GestureIntentClassifier.INTENT_HORIZONTAL_CLOSE
+                            && isDownOverScrollable(-1)) {
+                        // Leave the rest of the gesture to the children.
+                        ignoreGesture();
+                        return false;
+                    }
+                    if (canDragTowards(intent) && tryCaptureViewForDrag(mIntentPointerId)) {
+                        saveLastMotion(ev);
+                        break;
+                    }
+                }
 
                 // First to cross a touch slop over a draggable view wins. Also report edge drags.
                 final int pointerCount = MotionEventCompat.getPointerCount(ev);
@@ -580,19 +958,25 @@ public class DrawerDragHelper {
                     // If pointer is invalid then skip the ACTION_MOVE.
                     if (!isValidPointerForActionMove(pointerId)) continue;
 
+                    final int slot = findSlot(pointerId);
                     final float x = MotionEventCompat.getX(ev, i);
                     final float y = MotionEventCompat.getY(ev, i);
-                    final float dx = x - mInitialMotionX[pointerId];
-                    final float dy = y - mInitialMotionY[pointerId];
+                    final float dx = x - mInitialMotionX[slot];
+                    final float dy = y - mInitialMotionY[slot];
 
                     final boolean pastSlop = checkTouchSlop(mContentView, dx, dy);
+                    if (pastSlop && pointerId == mDownPointerId && isDownOverScrollable(dx)) {
+                        // The scrollable view under the finger takes the gesture.
+                        ignoreGesture();
+                        return false;
+                    }
                     if (pastSlop) {
                         // check the callback's
                         // getView[Horizontal|Vertical]DragRange methods to know
                         // if you can move at all along an axis, then see if it
                         // would clamp to the same value. If you can't move at
                         // all in every dimension with a nonzero range, bail.
-                        final int oldLeft = mContentView.getLeft();
+                        final int oldLeft = getViewLeft(mContentView);
                         final int targetLeft = oldLeft + (int) dx;
                         final int newLeft = mCallback.clampViewPositionHorizontal(mContentView,
                                 targetLeft, (int) dx);
@@ -653,10 +1037,7 @@ public class DrawerDragHelper {
             cancel();
         }
 
-        if (mVelocityTracker == null) {
-            mVelocityTracker = VelocityTracker.obtain();
-        }
-        mVelocityTracker.addMovement(ev);
+        mVelocityEstimator.addMovement(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
@@ -671,7 +1052,7 @@ public class DrawerDragHelper {
                 // Start immediately if possible.
                 tryCaptureViewForDrag(pointerId);
 
-                final int edgesTouched = mInitialEdgesTouched[pointerId];
+                final int edgesTouched = getInitialEdgesTouched(pointerId);
                 if ((edgesTouched & mTrackingEdges) != 0) {
                     mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                 }
@@ -691,7 +1072,7 @@ public class DrawerDragHelper {
 
                     tryCaptureViewForDrag(pointerId);
 
-                    final int edgesTouched = mInitialEdgesTouched[pointerId];
+                    final int edgesTouched = getInitialEdgesTouched(pointerId);
                     if ((edgesTouched & mTrackingEdges) != 0) {
                         mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                     }
@@ -710,13 +1091,26 @@ public class DrawerDragHelper {
                     // If pointer is invalid then skip the ACTION_MOVE.
                     if (!isValidPointerForActionMove(mActivePointerId)) break;
 
+                    // Batched samples already reached the velocity estimator. Only the newest
+                    // one positions the view, the older ones would lay out frames nobody sees.
                     final int index = MotionEventCompat.findPointerIndex(ev, mActivePointerId);
+                    final int slot = findSlot(mActivePointerId);
                     final float x = MotionEventCompat.getX(ev, index);
                     final float y = MotionEventCompat.getY(ev, index);
-                    final int idx = (int) (x - mLastMotionX[mActivePointerId]);
-                    final int idy = (int) (y - mLastMotionY[mActivePointerId]);
+                    final float dx = x - mLastMotionX[slot];
+                    final float dy = y - mLastMotionY[slot];
 
-                    dragTo(mContentView.getLeft() + idx, mContentView.getTop() + idy, idx, idy);
+                    if (mTouchPredictor != null) {
+                        mTouchPredictor.addMovement(ev, mActivePointerId);
+                    }
+                    if (mFrameCoalescingEnabled) {
+                        mPendingDx += dx;
+                        mPendingDy += dy;
+                        postDragFrame();
+                    } else {
+                        applyDrag(x, (int) dx, (int) dy,
+                                SystemClock.uptimeMillis() + mFrameInterval);
+                    }
 
                     saveLastMotion(ev);
                 } else {
@@ -728,10 +1122,11 @@ public class DrawerDragHelper {
                         // If pointer is invalid then skip the ACTION_MOVE.
                         if (!isValidPointerForActionMove(pointerId)) continue;
 
+                        final int slot = findSlot(pointerId);
                         final float x = MotionEventCompat.getX(ev, i);
                         final float y = MotionEventCompat.getY(ev, i);
-                        final float dx = x - mInitialMotionX[pointerId];
-                        final float dy = y - mInitialMotionY[pointerId];
+                        final float dx = x - mInitialMotionX[slot];
+                        final float dy = y - mInitialMotionY[slot];
 
                         reportNewEdgeDrags(dx, dy, pointerId);
                         if (mDragState == STATE_DRAGGING) {
@@ -789,6 +1184,8 @@ public class DrawerDragHelper {
 
             case MotionEvent.ACTION_CANCEL: {
                 if (mDragState == STATE_DRAGGING) {
+                    // A canceled gesture is not applied, the view settles from where it was drawn.
+                    clearPendingDrag();
                     dispatchViewReleased(0, 0);
                 }
                 cancel();
@@ -798,41 +1195,45 @@ public class DrawerDragHelper {
     }
 
     private void reportNewEdgeDrags(float dx, float dy, int pointerId) {
+        final int slot = findSlot(pointerId);
+        if (slot < 0) {
+            return;
+        }
         int dragsStarted = 0;
-        if (checkNewEdgeDrag(dx, dy, pointerId, EDGE_LEFT)) {
+        if (checkNewEdgeDrag(dx, dy, slot, EDGE_LEFT)) {
             dragsStarted |= EDGE_LEFT;
         }
-        if (checkNewEdgeDrag(dy, dx, pointerId, EDGE_TOP)) {
+        if (checkNewEdgeDrag(dy, dx, slot, EDGE_TOP)) {
             dragsStarted |= EDGE_TOP;
         }
-        if (checkNewEdgeDrag(dx, dy, pointerId, EDGE_RIGHT)) {
+        if (checkNewEdgeDrag(dx, dy, slot, EDGE_RIGHT)) {
             dragsStarted |= EDGE_RIGHT;
         }
-        if (checkNewEdgeDrag(dy, dx, pointerId, EDGE_BOTTOM)) {
+        if (checkNewEdgeDrag(dy, dx, slot, EDGE_BOTTOM)) {
             dragsStarted |= EDGE_BOTTOM;
         }
 
         if (dragsStarted != 0) {
-            mEdgeDragsInProgress[pointerId] |= dragsStarted;
+            mEdgeDragsInProgress[slot] |= dragsStarted;
             mCallback.onEdgeDragStarted(dragsStarted, pointerId);
         }
     }
 
-    private boolean checkNewEdgeDrag(float delta, float odelta, int pointerId, int edge) {
+    private boolean checkNewEdgeDrag(float delta, float odelta, int slot, int edge) {
         final float absDelta = Math.abs(delta);
         final float absODelta = Math.abs(odelta);
 
-        if ((mInitialEdgesTouched[pointerId] & edge) != edge  || (mTrackingEdges & edge) == 0 ||
-                (mEdgeDragsLocked[pointerId] & edge) == edge ||
-                (mEdgeDragsInProgress[pointerId] & edge) == edge ||
+        if ((mInitialEdgesTouched[slot] & edge) != edge  || (mTrackingEdges & edge) == 0 ||
+                (mEdgeDragsLocked[slot] & edge) == edge ||
+                (mEdgeDragsInProgress[slot] & edge) == edge ||
                 (absDelta <= mTouchSlop && absODelta <= mTouchSlop)) {
             return false;
         }
         if (absDelta < absODelta * 0.5f && mCallback.onEdgeLock(edge)) {
-            mEdgeDragsLocked[pointerId] |= edge;
+            mEdgeDragsLocked[slot] |= edge;
             return false;
         }
-        return (mEdgeDragsInProgress[pointerId] & edge) == 0 && absDelta > mTouchSlop;
+        return (mEdgeDragsInProgress[slot] & edge) == 0 && absDelta > mTouchSlop;
     }
 
     private boolean checkTouchSlop(View child, float dx, float dy) {
@@ -853,9 +1254,8 @@ public class DrawerDragHelper {
     }
 
     public boolean checkTouchSlop(int directions) {
-        final int count = mInitialMotionX.length;
-        for (int i = 0; i < count; i++) {
-            if (checkTouchSlop(directions, i)) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] != INVALID_POINTER && checkSlotTouchSlop(directions, slot)) {
                 return true;
             }
         }
@@ -863,15 +1263,16 @@ public class DrawerDragHelper {
     }
 
     public boolean checkTouchSlop(int directions, int pointerId) {
-        if (!isPointerDown(pointerId)) {
-            return false;
-        }
+        final int slot = findSlot(pointerId);
+        return slot >= 0 && checkSlotTouchSlop(directions, slot);
+    }
 
+    private boolean checkSlotTouchSlop(int directions, int slot) {
         final boolean checkHorizontal = (directions & DIRECTION_HORIZONTAL) == DIRECTION_HORIZONTAL;
         final boolean checkVertical = (directions & DIRECTION_VERTICAL) == DIRECTION_VERTICAL;
 
-        final float dx = mLastMotionX[pointerId] - mInitialMotionX[pointerId];
-        final float dy = mLastMotionY[pointerId] - mInitialMotionY[pointerId];
+        final float dx = mLastMotionX[slot] - mInitialMotionX[slot];
+        final float dy = mLastMotionY[slot] - mInitialMotionY[slot];
 
         if (checkHorizontal && checkVertical) {
             return dx * dx + dy * dy > mTouchSlop * mTouchSlop;
@@ -884,9 +1285,9 @@ public class DrawerDragHelper {
     }
 
     public boolean isEdgeTouched(int edges) {
-        final int count = mInitialEdgesTouched.length;
-        for (int i = 0; i < count; i++) {
-            if (isEdgeTouched(edges, i)) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] != INVALID_POINTER
+                    && (mInitialEdgesTouched[slot] & edges) != 0) {
                 return true;
             }
         }
@@ -894,16 +1295,14 @@ public class DrawerDragHelper {
     }
 
     public boolean isEdgeTouched(int edges, int pointerId) {
-        return isPointerDown(pointerId) && (mInitialEdgesTouched[pointerId] & edges) != 0;
+        return (getInitialEdgesTouched(pointerId) & edges) != 0;
     }
 
     private void releaseViewForPointerUp() {
-        mVelocityTracker.computeCurrentVelocity(1000, mMaxVelocity);
-        final float xvel = clampMag(
-                VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
+        mVelocityEstimator.computeCurrentVelocity(1000, mMaxVelocity);
+        final float xvel = clampMag(mVelocityEstimator.getXVelocity(mActivePointerId),
                 mMinVelocity, mMaxVelocity);
-        final float yvel = clampMag(
-                VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId),
+        final float yvel = clampMag(mVelocityEstimator.getYVelocity(mActivePointerId),
                 mMinVelocity, mMaxVelocity);
         dispatchViewReleased(xvel, yvel);
     }
@@ -911,7 +1310,7 @@ public class DrawerDragHelper {
     private void dragTo(int left, int top, int dx, int dy) {
         int clampedX = left;
         int clampedY = top;
-        final int oldLeft = mContentView.getLeft();
+        final int oldLeft = getViewLeft(mContentView);
         final int oldTop = mContentView.getTop();
         if (dx != 0) {
             clampedX = mCallback.clampViewPositionHorizontal(mContentView, left, dx);
@@ -930,20 +1329,106 @@ public class DrawerDragHelper {
         }
     }
 
+    private void postDragFrame() {
+        if (!mDragFramePosted) {
+            mDragFramePosted = true;
+            // Posted while the input of a frame is handled, the callback still runs in that
+            // frame, before it is drawn.
+            Choreographer.getInstance().postFrameCallback(mDragFrameCallback);
+        }
+    }
+
+    private void applyPendingDrag(long presentationTime) {
+        if (mDragFramePosted) {
+            mDragFramePosted = false;
+            Choreographer.getInstance().removeFrameCallback(mDragFrameCallback);
+        }
+        if (!mFrameCoalescingEnabled) {
+            return;
+        }
+        final int slot = findSlot(mActivePointerId);
+        if (mDragState != STATE_DRAGGING || slot < 0) {
+            mPendingDx = 0;
+            mPendingDy = 0;
+            return;
+        }
+        final int dx = (int) mPendingDx;
+        final int dy = (int) mPendingDy;
+        mPendingDx -= dx;
+        mPendingDy -= dy;
+        applyDrag(mLastMotionX[slot], dx, dy, presentationTime);
+    }
+
+    private void clearPendingDrag() {
+        if (mDragFramePosted) {
+            mDragFramePosted = false;
+            Choreographer.getInstance().removeFrameCallback(mDragFrameCallback);
+        }
+        mPendingDx = 0;
+        mPendingDy = 0;
+    }
+
+    /**
+     * @param x                the newest position of the active pointer
+     * @param presentationTime when the frame showing this drag is expected on screen
+     */
+    private void applyDrag(float x, int dx, int dy, long presentationTime) {
+        if (mTouchPredictor != null) {
+            dragToPredicted(x, dx, dy, presentationTime);
+        } else if (dx != 0 || dy != 0) {
+            dragTo(getViewLeft(mContentView) + dx, mContentView.getTop() + dy, dx, dy);
+        }
+    }
+
+    /**
+     * Drag by the real movement of the active pointer, plus the movement predicted until the
+     * next frame is presented. The offset predicted for the previous sample is corrected.
+     * Drawers only move horizontally, so only the horizontal movement is predicted.
+     */
+    private void dragToPredicted(float x, int dx, int dy, long presentationTime) {
+        mTouchPredictor.predict(presentationTime);
+        final int offsetX = Math.round(mTouchPredictor.getPredictedX() - x);
+
+        final int oldLeft = getViewLeft(mContentView);
+        // Where the view would be without prediction, clamped as a plain drag would be.
+        final int realLeft = mCallback.clampViewPositionHorizontal(mContentView,
+                oldLeft - mPredictedOffsetX + dx, dx);
+        final int left = realLeft + offsetX;
+        dragTo(left, mContentView.getTop() + dy, left - oldLeft, dy);
+        mPredictedOffsetX = getViewLeft(mContentView) - realLeft;
+    }
+
+    private long getFrameInterval() {
+        final Display display = mParentView.getDisplay();
+        final float refreshRate = display != null ? display.getRefreshRate() : 0;
+        return refreshRate > 0 ? (long) (1000 / refreshRate) : DEFAULT_FRAME_INTERVAL;
+    }
+
     public boolean findDrawerChildren() {
-        if (mParentView instanceof LeftDrawerLayout) {
-            LeftDrawerLayout drawerLayout = (LeftDrawerLayout) mParentView;
-            mContentView = drawerLayout.findContent();
-            mDrawerView = drawerLayout.findDrawer();
-            if (mContentView != null && mDrawerView != null) {
-                return true;
-            }
+        // Field reads only: the layout keeps its role index up to date as children come and go.
+        if (mDrawerLayout != null && mDrawerLayout.hasDrawerChildren()) {
+            mContentView = mDrawerLayout.findContent();
+            mDrawerView = mDrawerLayout.findDrawer();
+            return true;
         }
 
         return false;
     }
 
     private void offsetVerticalDrawerChildren (int x, int dx) {
+        if (mMotionMode == MOTION_TRANSLATION) {
+            // Only RenderNode properties change, neither child is laid out or re-recorded.
+            if (mContentView != null) {
+                ViewCompat.setTranslationX(mContentView, x - mContentView.getLeft());
+            }
+            if (mDrawerView != null) {
+                float onScreen = DRAWER_ON_SCREEN + 1.0f * x / CONTENT_OFFSET_FACTOR / mDrawerView.getWidth();
+                int drawerLeft = (int) ((onScreen - 1) * mDrawerView.getWidth());
+                ViewCompat.setTranslationX(mDrawerView, drawerLeft - mDrawerView.getLeft());
+            }
+            return;
+        }
+
         if (mContentView != null) {
             ViewCompat.offsetLeftAndRight(mContentView, dx);
         }
@@ -989,13 +1474,17 @@ public class DrawerDragHelper {
         return null;
     }*/
 
+    /**
+     * @param x horizontal position in the parent's own coordinates, like the touch events
+     * @param y vertical position in the parent's own coordinates
+     */
     private int getEdgesTouched(int x, int y) {
         int result = 0;
 
-        if (x < mParentView.getLeft() + mEdgeSize) result |= EDGE_LEFT;
-        if (y < mParentView.getTop() + mEdgeSize) result |= EDGE_TOP;
-        if (x > mParentView.getRight() - mEdgeSize) result |= EDGE_RIGHT;
-        if (y > mParentView.getBottom() - mEdgeSize) result |= EDGE_BOTTOM;
+        if (x < mEdgeSize) result |= EDGE_LEFT;
+        if (y < mEdgeSize) result |= EDGE_TOP;
+        if (x > mParentView.getWidth() - mEdgeSize) result |= EDGE_RIGHT;
+        if (y > mParentView.getHeight() - mEdgeSize) result |= EDGE_BOTTOM;
 
         return result;
     }
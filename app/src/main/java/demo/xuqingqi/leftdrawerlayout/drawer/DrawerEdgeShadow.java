@@ -0,0 +1,66 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+
+/**
+ * Shadow cast by the content onto the drawer along the content's left edge.
+ *
+ * The gradient is rendered once per density into a strip one pixel high, which is stretched
+ * over the edge and faded with the paint alpha. Drawing it evaluates no shader.
+ */
+final class DrawerEdgeShadow {
+
+    private static final int SHADOW_WIDTH = 12; // dp
+    private static final int SHADOW_ALPHA = 0x50;
+
+    // Strips by densityDpi, shared by all layouts.
+    private static final SparseArray<Bitmap> sStrips = new SparseArray<>();
+
+    private final Bitmap mStrip;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mBounds = new Rect();
+
+    DrawerEdgeShadow(DisplayMetrics metrics) {
+        mStrip = getStrip(metrics);
+    }
+
+    private static Bitmap getStrip(DisplayMetrics metrics) {
+        synchronized (sStrips) {
+            Bitmap strip = sStrips.get(metrics.densityDpi);
+            if (strip == null) {
+                strip = createStrip(Math.max(1, (int) (SHADOW_WIDTH * metrics.density + 0.5f)));
+                sStrips.put(metrics.densityDpi, strip);
+            }
+            return strip;
+        }
+    }
+
+    private static Bitmap createStrip(int width) {
+        final int[] pixels = new int[width];
+        for (int x = 0; x < width; x++) {
+            // Darkest at the edge on the right, eased out towards the left.
+            final float t = (x + 0.5f) / width;
+            pixels[x] = (int) (SHADOW_ALPHA * t * t) << 24;
+        }
+        return Bitmap.createBitmap(pixels, width, 1, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * @param edge      x of the content's left edge, the shadow ends there
+     * @param intensity 0 for no shadow to 1 for full shadow
+     */
+    void draw(Canvas canvas, int edge, int top, int bottom, float intensity) {
+        final int alpha = (int) (255 * Math.min(1f, intensity));
+        if (alpha <= 0 || top >= bottom) {
+            return;
+        }
+        mPaint.setAlpha(alpha);
+        mBounds.set(edge - mStrip.getWidth(), top, edge, bottom);
+        canvas.drawBitmap(mStrip, null, mBounds, mPaint);
+    }
+}
@@ -0,0 +1,138 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+/**
+ * Drawing state of a {@link LeftDrawerLayout} derived from the drawer offset.
+ *
+ * The values are only recomputed after {@link #setDrawerOffset(float)}, {@link #setScrimColor(int)}
+ * or {@link #invalidateBounds()} marked them dirty, so idle frames and frames in which only the
+ * content redraws do no drawer bookkeeping at all.
+ */
+final class DrawerRenderState {
+
+    static final int DIRTY_SCRIM = 1 << 0;
+    static final int DIRTY_BOUNDS = 1 << 1;
+    static final int DIRTY_ALL = DIRTY_SCRIM | DIRTY_BOUNDS;
+
+    private static final float DRAWER_ON_SCREEN = LeftDrawerLayout.DRAWER_ON_SCREEN;
+
+    private int mDirtyFlags = DIRTY_ALL;
+
+    private float mScrimOpacity = DRAWER_ON_SCREEN;
+    private int mBaseScrimColor;
+    private int mScrimColor;
+
+    private int mContentLeft;
+    private int mDrawerClipLeft;
+    private int mDrawerClipRight;
+    private int mClipRight;
+    private int mClipBottom;
+
+    DrawerRenderState(int baseScrimColor) {
+        mBaseScrimColor = baseScrimColor;
+    }
+
+    void setDrawerOffset(float onScreen) {
+        if (onScreen != mScrimOpacity) {
+            mScrimOpacity = onScreen;
+            mDirtyFlags |= DIRTY_ALL;
+        }
+    }
+
+    void setScrimColor(int color) {
+        if (color != mBaseScrimColor) {
+            mBaseScrimColor = color;
+            mDirtyFlags |= DIRTY_SCRIM;
+        }
+    }
+
+    void invalidateBounds() {
+        mDirtyFlags |= DIRTY_BOUNDS;
+    }
+
+    boolean isDirty() {
+        return mDirtyFlags != 0;
+    }
+
+    /**
+     * Recompute the scrim color only, for renderers that are notified outside of drawing.
+     *
+     * @return true if the scrim color changed
+     */
+    boolean updateScrim() {
+        if ((mDirtyFlags & DIRTY_SCRIM) == 0) {
+            return false;
+        }
+        mDirtyFlags &= ~DIRTY_SCRIM;
+
+        final int scrimColor = computeScrimColor();
+        if (scrimColor == mScrimColor) {
+            return false;
+        }
+        mScrimColor = scrimColor;
+        return true;
+    }
+
+    /**
+     * Recompute whatever is dirty.
+     *
+     * @return true if anything was recomputed
+     */
+    boolean update(int drawerLeft, int contentLeft, int width, int height) {
+        if (mDirtyFlags == 0) {
+            return false;
+        }
+
+        if ((mDirtyFlags & DIRTY_SCRIM) != 0) {
+            mScrimColor = computeScrimColor();
+        }
+
+        if ((mDirtyFlags & DIRTY_BOUNDS) != 0) {
+            mContentLeft = contentLeft;
+            mDrawerClipLeft = drawerLeft;
+            mDrawerClipRight = contentLeft;
+            mClipRight = width;
+            mClipBottom = height;
+        }
+
+        mDirtyFlags = 0;
+        return true;
+    }
+
+    private int computeScrimColor() {
+        final int baseAlpha = (mBaseScrimColor & 0xff000000) >>> 24;
+        final int imag = (int) (baseAlpha * Math.max(0, mScrimOpacity - DRAWER_ON_SCREEN));
+        return imag << 24 | (mBaseScrimColor & 0xffffff);
+    }
+
+    float getScrimOpacity() {
+        return mScrimOpacity;
+    }
+
+    boolean isScrimVisible() {
+        return mScrimOpacity > DRAWER_ON_SCREEN;
+    }
+
+    int getScrimColor() {
+        return mScrimColor;
+    }
+
+    int getContentLeft() {
+        return mContentLeft;
+    }
+
+    int getDrawerClipLeft() {
+        return mDrawerClipLeft;
+    }
+
+    int getDrawerClipRight() {
+        return mDrawerClipRight;
+    }
+
+    int getClipRight() {
+        return mClipRight;
+    }
+
+    int getClipBottom() {
+        return mClipBottom;
+    }
+}
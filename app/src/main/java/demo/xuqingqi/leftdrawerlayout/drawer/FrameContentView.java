@@ -0,0 +1,34 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.widget.FrameLayout;
+
+/**
+ * Content container that stacks its children like a {@link FrameLayout} and anchors them with
+ * {@code layout_gravity}. Unlike {@link ContentView} it measures every child once per pass,
+ * because the content is always measured with {@code MeasureSpec.EXACTLY}.
+ */
+
+public class FrameContentView extends FrameLayout implements IContentView {
+
+    public FrameContentView(Context context) {
+        super(context);
+    }
+
+    public FrameContentView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public FrameContentView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public FrameContentView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+}
@@ -0,0 +1,35 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.widget.FrameLayout;
+
+/**
+ * Drawer container that stacks its children like a {@link FrameLayout} and anchors them with
+ * {@code layout_gravity}. Unlike {@link DrawerView} it measures its children in a single pass.
+ * The one exception is inherited from FrameLayout: a {@code wrap_content} drawer with more than
+ * one {@code match_parent} child measures those children a second time.
+ */
+
+public class FrameDrawerView extends FrameLayout implements IDrawerView {
+
+    public FrameDrawerView(Context context) {
+        super(context);
+    }
+
+    public FrameDrawerView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public FrameDrawerView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public FrameDrawerView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+}
@@ -0,0 +1,93 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+/**
+ * Tells from the first few samples of a gesture what it is meant to do, so the drawer can be
+ * captured before the full touch slop for a clear horizontal swipe, and a vertical scroll can
+ * be left to the children right away.
+ *
+ * A gesture is classified by the direction and average speed of its movement since the down
+ * event. Fast movements are classified after a shorter distance than slow ones. Horizontal and
+ * vertical intents are final for the rest of the gesture.
+ */
+final class GestureIntentClassifier {
+
+    static final int INTENT_UNKNOWN = 0;
+    static final int INTENT_TAP = 1;
+    static final int INTENT_HORIZONTAL_OPEN = 2;
+    static final int INTENT_HORIZONTAL_CLOSE = 3;
+    static final int INTENT_VERTICAL = 4;
+
+    // Movements within 30 degrees of an axis are along it, anything between stays unknown.
+    private static final float AXIS_TANGENT = 0.577f;
+
+    private final float mIntentSlop;
+    private final float mTouchSlop;
+    private final float mMinIntentVelocity;
+    private final long mTapTimeout;
+
+    private long mDownTime;
+    private float mDownX;
+    private float mDownY;
+    private int mIntent = INTENT_UNKNOWN;
+
+    /**
+     * @param intentSlop        distance in pixels after which a fast movement is classified
+     * @param touchSlop         distance in pixels after which any movement is classified
+     * @param minIntentVelocity average speed in pixels per millisecond of a fast movement
+     * @param tapTimeout        a gesture that stays within the touch slop is a tap for this
+     *                          many milliseconds
+     */
+    GestureIntentClassifier(float intentSlop, float touchSlop, float minIntentVelocity,
+                            long tapTimeout) {
+        mIntentSlop = intentSlop;
+        mTouchSlop = touchSlop;
+        mMinIntentVelocity = minIntentVelocity;
+        mTapTimeout = tapTimeout;
+    }
+
+    /**
+     * Start a new gesture at its down event.
+     */
+    void start(long time, float x, float y) {
+        mDownTime = time;
+        mDownX = x;
+        mDownY = y;
+        mIntent = INTENT_TAP;
+    }
+
+    /**
+     * @return the intent of the gesture after a move to the position
+     */
+    int addSample(long time, float x, float y) {
+        if (isDecided()) {
+            return mIntent;
+        }
+        final float dx = x - mDownX;
+        final float dy = y - mDownY;
+        final float adx = Math.abs(dx);
+        final float ady = Math.abs(dy);
+        final float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        final long elapsed = Math.max(1, time - mDownTime);
+
+        final float slop = distance / elapsed >= mMinIntentVelocity ? mIntentSlop : mTouchSlop;
+        if (distance < slop) {
+            mIntent = elapsed <= mTapTimeout ? INTENT_TAP : INTENT_UNKNOWN;
+        } else if (ady <= adx * AXIS_TANGENT) {
+            mIntent = dx > 0 ? INTENT_HORIZONTAL_OPEN : INTENT_HORIZONTAL_CLOSE;
+        } else if (adx <= ady * AXIS_TANGENT) {
+            mIntent = INTENT_VERTICAL;
+        } else {
+            mIntent = INTENT_UNKNOWN;
+        }
+        return mIntent;
+    }
+
+    int getIntent() {
+        return mIntent;
+    }
+
+    private boolean isDecided() {
+        return mIntent == INTENT_HORIZONTAL_OPEN || mIntent == INTENT_HORIZONTAL_CLOSE
+                || mIntent == INTENT_VERTICAL;
+    }
+}
@@ -0,0 +1,86 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+/**
+ * {@link TouchPredictor} that tracks position and velocity of each axis with a constant
+ * velocity Kalman filter, and extrapolates the filtered state. Smoother than
+ * {@link LinearTouchPredictor} on noisy panels, at the cost of reacting a little later to
+ * sudden changes of direction.
+ */
+public class KalmanTouchPredictor extends TouchPredictor {
+
+    // Variance of the measured positions, px^2.
+    private static final float MEASUREMENT_NOISE = 1f;
+    // Spectral density of the unmodelled acceleration, px^2/ms^3.
+    private static final float PROCESS_NOISE = 0.002f;
+    // Variance of the velocity before the second sample, (px/ms)^2.
+    private static final float INITIAL_VELOCITY_VARIANCE = 25f;
+    // Gaps longer than this restart the filter, the finger most likely rested.
+    private static final long MAX_GAP = 50; // ms
+
+    private final Axis mX = new Axis();
+    private final Axis mY = new Axis();
+    private boolean mInitialized;
+    private long mTime;
+
+    @Override
+    protected void onAddSample(long time, float x, float y) {
+        final long dt = time - mTime;
+        if (!mInitialized || dt > MAX_GAP) {
+            mX.init(x);
+            mY.init(y);
+            mInitialized = true;
+        } else {
+            mX.update(dt, x);
+            mY.update(dt, y);
+        }
+        mTime = time;
+    }
+
+    @Override
+    protected void onPredict(float lookahead) {
+        if (mInitialized) {
+            setPrediction(mX.mPosition + mX.mVelocity * lookahead,
+                    mY.mPosition + mY.mVelocity * lookahead);
+        }
+    }
+
+    @Override
+    protected void onReset() {
+        mInitialized = false;
+    }
+
+    private static final class Axis {
+        float mPosition;
+        float mVelocity;
+        // Symmetric covariance of (position, velocity).
+        float mP00, mP01, mP11;
+
+        void init(float position) {
+            mPosition = position;
+            mVelocity = 0;
+            mP00 = MEASUREMENT_NOISE;
+            mP01 = 0;
+            mP11 = INITIAL_VELOCITY_VARIANCE;
+        }
+
+        void update(float dt, float measured) {
+            // Predict the state dt ahead.
+            mPosition += mVelocity * dt;
+            final float dt2 = dt * dt;
+            float p00 = mP00 + 2 * dt * mP01 + dt2 * mP11 + PROCESS_NOISE * dt2 * dt / 3;
+            float p01 = mP01 + dt * mP11 + PROCESS_NOISE * dt2 / 2;
+            float p11 = mP11 + PROCESS_NOISE * dt;
+
+            // Correct it with the measured position.
+            final float s = p00 + MEASUREMENT_NOISE;
+            final float k0 = p00 / s;
+            final float k1 = p01 / s;
+            final float residual = measured - mPosition;
+            mPosition += k0 * residual;
+            mVelocity += k1 * residual;
+            mP00 = (1 - k0) * p00;
+            mP01 = (1 - k0) * p01;
+            mP11 = p11 - k1 * p01;
+        }
+    }
+}
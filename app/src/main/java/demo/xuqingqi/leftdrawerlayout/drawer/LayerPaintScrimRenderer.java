@@ -0,0 +1,74 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * Applies the scrim as a color filter on the paint of the content's hardware layer. While the
+ * scrim is visible the content is drawn from a hardware layer, and a scrim change only updates
+ * the layer paint.
+ *
+ * Color filters are immutable, so one filter is created per alpha level of the scrim color and
+ * reused afterwards.
+ */
+public class LayerPaintScrimRenderer extends ScrimRenderer {
+
+    private final Paint mLayerPaint = new Paint();
+    private final PorterDuffColorFilter[] mFilters = new PorterDuffColorFilter[256];
+    private int mFilterRgb;
+
+    private boolean mLayerApplied;
+    private int mLayerTypeBefore;
+
+    @Override
+    public void onScrimChanged(View contentView, int scrimColor) {
+        final int alpha = Color.alpha(scrimColor);
+        if (alpha == 0) {
+            restoreLayer(contentView);
+            return;
+        }
+
+        final int rgb = scrimColor & 0xffffff;
+        if (rgb != mFilterRgb) {
+            Arrays.fill(mFilters, null);
+            mFilterRgb = rgb;
+        }
+        PorterDuffColorFilter filter = mFilters[alpha];
+        if (filter == null) {
+            filter = new PorterDuffColorFilter(scrimColor, PorterDuff.Mode.SRC_ATOP);
+            mFilters[alpha] = filter;
+        }
+        mLayerPaint.setColorFilter(filter);
+
+        if (!mLayerApplied) {
+            mLayerApplied = true;
+            mLayerTypeBefore = ViewCompat.getLayerType(contentView);
+            ViewCompat.setLayerType(contentView, ViewCompat.LAYER_TYPE_HARDWARE, mLayerPaint);
+        } else {
+            ViewCompat.setLayerPaint(contentView, mLayerPaint);
+        }
+    }
+
+    @Override
+    public void onDetach(View contentView) {
+        restoreLayer(contentView);
+    }
+
+    @Override
+    public boolean usesContentLayer() {
+        return true;
+    }
+
+    private void restoreLayer(View contentView) {
+        if (mLayerApplied) {
+            mLayerApplied = false;
+            ViewCompat.setLayerType(contentView, mLayerTypeBefore, null);
+        }
+    }
+}
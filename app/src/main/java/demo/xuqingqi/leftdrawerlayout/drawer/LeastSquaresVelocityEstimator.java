@@ -0,0 +1,263 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * {@link VelocityEstimator} that fits a quadratic to the recent positions of each pointer with
+ * least squares, and reports its slope at the newest sample.
+ *
+ * Samples are kept in preallocated primitive ring buffers, a slot per pointer, so a gesture
+ * allocates nothing. Only {@link #addMovement(MotionEvent)} depends on Android, the estimation
+ * is fed through {@link #addSample(int, long, float, float)} and is deterministic.
+ */
+public class LeastSquaresVelocityEstimator extends VelocityEstimator {
+
+    /** Pointers tracked at the same time, further pointers are ignored. */
+    static final int MAX_POINTERS = 16;
+    /** Samples kept per pointer. */
+    static final int HISTORY_SIZE = 20;
+
+    // Only samples this recent take part in the fit.
+    private static final long HORIZON = 100; // ms
+    // A pointer that did not move for this long is considered stopped.
+    private static final long ASSUME_STOPPED_TIME = 40; // ms
+
+    private static final int INVALID_POINTER = -1;
+
+    private final int[] mSlotPointerIds = new int[MAX_POINTERS];
+    private final int[] mNewest = new int[MAX_POINTERS];
+    private final int[] mCount = new int[MAX_POINTERS];
+    private final long[] mTimes = new long[MAX_POINTERS * HISTORY_SIZE];
+    private final float[] mX = new float[MAX_POINTERS * HISTORY_SIZE];
+    private final float[] mY = new float[MAX_POINTERS * HISTORY_SIZE];
+
+    private final float[] mXVelocity = new float[MAX_POINTERS];
+    private final float[] mYVelocity = new float[MAX_POINTERS];
+
+    private long mLastEventTime;
+
+    public LeastSquaresVelocityEstimator() {
+        clear();
+    }
+
+    @Override
+    public void addMovement(MotionEvent ev) {
+        final int action = ev.getActionMasked();
+        final long eventTime = ev.getEventTime();
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                clear();
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                clearPointer(ev.getPointerId(ev.getActionIndex()));
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP:
+            case MotionEvent.ACTION_CANCEL:
+                // Up events repeat the last position, only their time matters.
+                addEventTime(eventTime);
+                return;
+        }
+
+        // Moves carry the samples batched since the previous event, oldest first. On fast touch
+        // panels most samples arrive this way.
+        final int pointerCount = ev.getPointerCount();
+        final int historySize = ev.getHistorySize();
+        for (int h = 0; h < historySize; h++) {
+            final long time = ev.getHistoricalEventTime(h);
+            for (int i = 0; i < pointerCount; i++) {
+                addSample(ev.getPointerId(i), time, ev.getHistoricalX(i, h),
+                        ev.getHistoricalY(i, h));
+            }
+        }
+        for (int i = 0; i < pointerCount; i++) {
+            addSample(ev.getPointerId(i), eventTime, ev.getX(i), ev.getY(i));
+        }
+    }
+
+    /**
+     * Add a position of a pointer. Samples of a pointer must be added in time order.
+     */
+    public void addSample(int pointerId, long time, float x, float y) {
+        addEventTime(time);
+        final int slot = obtainSlot(pointerId);
+        if (slot < 0) {
+            return;
+        }
+        final int base = slot * HISTORY_SIZE;
+        int newest = mNewest[slot];
+        if (mCount[slot] == 0 || mTimes[base + newest] != time) {
+            newest = (newest + 1) % HISTORY_SIZE;
+            mNewest[slot] = newest;
+            mCount[slot] = Math.min(mCount[slot] + 1, HISTORY_SIZE);
+        }
+        mTimes[base + newest] = time;
+        mX[base + newest] = x;
+        mY[base + newest] = y;
+    }
+
+    /**
+     * Note an event without new positions, such as the lift of the last pointer. A pointer
+     * that did not move for a while before it is lifted has no velocity.
+     */
+    public void addEventTime(long time) {
+        mLastEventTime = Math.max(mLastEventTime, time);
+    }
+
+    @Override
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] == INVALID_POINTER) {
+                continue;
+            }
+            estimate(slot);
+            mXVelocity[slot] = clamp(mXVelocity[slot] * units, maxVelocity);
+            mYVelocity[slot] = clamp(mYVelocity[slot] * units, maxVelocity);
+        }
+    }
+
+    @Override
+    public float getXVelocity(int pointerId) {
+        final int slot = findSlot(pointerId);
+        return slot < 0 ? 0 : mXVelocity[slot];
+    }
+
+    @Override
+    public float getYVelocity(int pointerId) {
+        final int slot = findSlot(pointerId);
+        return slot < 0 ? 0 : mYVelocity[slot];
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mSlotPointerIds, INVALID_POINTER);
+        Arrays.fill(mCount, 0);
+        Arrays.fill(mXVelocity, 0);
+        Arrays.fill(mYVelocity, 0);
+        mLastEventTime = 0;
+    }
+
+    private void clearPointer(int pointerId) {
+        final int slot = findSlot(pointerId);
+        if (slot >= 0) {
+            mSlotPointerIds[slot] = INVALID_POINTER;
+            mCount[slot] = 0;
+            mXVelocity[slot] = 0;
+            mYVelocity[slot] = 0;
+        }
+    }
+
+    private int findSlot(int pointerId) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] == pointerId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int obtainSlot(int pointerId) {
+        int free = -1;
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (mSlotPointerIds[slot] == pointerId) {
+                return slot;
+            }
+            if (free < 0 && mSlotPointerIds[slot] == INVALID_POINTER) {
+                free = slot;
+            }
+        }
+        if (free >= 0) {
+            mSlotPointerIds[free] = pointerId;
+            mCount[free] = 0;
+        }
+        return free;
+    }
+
+    private static float clamp(float velocity, float maxVelocity) {
+        return Math.max(-maxVelocity, Math.min(maxVelocity, velocity));
+    }
+
+    /**
+     * Fit x(t) and y(t) over the recent samples of the slot and store their slope at the newest
+     * sample, in pixels per millisecond.
+     */
+    private void estimate(int slot) {
+        mXVelocity[slot] = 0;
+        mYVelocity[slot] = 0;
+
+        final int count = mCount[slot];
+        if (count < 2) {
+            return;
+        }
+        final int base = slot * HISTORY_SIZE;
+        final int newest = mNewest[slot];
+        final long newestTime = mTimes[base + newest];
+        if (mLastEventTime - newestTime > ASSUME_STOPPED_TIME) {
+            return;
+        }
+        final float newestX = mX[base + newest];
+        final float newestY = mY[base + newest];
+
+        // Sums for the normal equations, with t relative to the newest sample and positions
+        // relative to the newest position to keep them well conditioned.
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double x0 = 0, x1 = 0, x2 = 0;
+        double y0 = 0, y1 = 0, y2 = 0;
+        int n = 0;
+        long previousTime = newestTime;
+        for (int i = 0; i < count; i++) {
+            final int index = base + (newest - i + HISTORY_SIZE) % HISTORY_SIZE;
+            final long time = mTimes[index];
+            if (newestTime - time > HORIZON || previousTime - time > ASSUME_STOPPED_TIME) {
+                break;
+            }
+            previousTime = time;
+
+            final double t = time - newestTime;
+            final double tt = t * t;
+            final double x = mX[index] - newestX;
+            final double y = mY[index] - newestY;
+            s1 += t;
+            s2 += tt;
+            s3 += tt * t;
+            s4 += tt * tt;
+            x0 += x;
+            x1 += t * x;
+            x2 += tt * x;
+            y0 += y;
+            y1 += t * y;
+            y2 += tt * y;
+            n++;
+        }
+        if (n < 2) {
+            return;
+        }
+        final double s0 = n;
+
+        if (n >= 3) {
+            // Cramer's rule for the linear coefficient of a + b*t + c*t^2.
+            final double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2)
+                    + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-6) {
+                mXVelocity[slot] = (float) (quadraticSlope(s0, s1, s2, s3, s4, x0, x1, x2) / det);
+                mYVelocity[slot] = (float) (quadraticSlope(s0, s1, s2, s3, s4, y0, y1, y2) / det);
+                return;
+            }
+        }
+
+        // Too few or too close samples for a curve, fit a line.
+        final double det = s0 * s2 - s1 * s1;
+        if (det != 0) {
+            mXVelocity[slot] = (float) ((s0 * x1 - s1 * x0) / det);
+            mYVelocity[slot] = (float) ((s0 * y1 - s1 * y0) / det);
+        }
+    }
+
+    private static double quadraticSlope(double s0, double s1, double s2, double s3, double s4,
+                                         double v0, double v1, double v2) {
+        // Determinant of the normal matrix with its second column replaced by (v0, v1, v2).
+        return s0 * (v1 * s4 - s3 * v2) - v0 * (s1 * s4 - s3 * s2) + s2 * (s1 * v2 - v1 * s2);
+    }
+}
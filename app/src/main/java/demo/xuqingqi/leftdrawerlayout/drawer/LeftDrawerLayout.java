@@ -2,8 +2,9 @@ package demo.xuqingqi.leftdrawerlayout.drawer;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Paint;
+import android.graphics.Color;
 import android.graphics.Rect;
 import android.os.Build;
 import android.os.Parcel;
@@ -19,6 +20,8 @@ import android.support.v4.view.AbsSavedState;
 import android.support.v4.view.AccessibilityDelegateCompat;
 import android.support.v4.view.KeyEventCompat;
 import android.support.v4.view.MotionEventCompat;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewGroupCompat;
 import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
@@ -30,6 +33,7 @@ import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 import android.view.accessibility.AccessibilityEvent;
 
 import java.lang.annotation.Retention;
@@ -37,7 +41,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.List;
 
-public class LeftDrawerLayout extends ViewGroup {
+public class LeftDrawerLayout extends ViewGroup implements NestedScrollingParent {
 
     private static final String TAG = "LeftDrawerLayout";
 
@@ -51,6 +55,100 @@ public class LeftDrawerLayout extends ViewGroup {
 
     public static final int STATE_SETTLING = DrawerDragHelper.STATE_SETTLING;
 
+    @IntDef({MOTION_MODE_OFFSET, MOTION_MODE_TRANSLATION})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface MotionMode {}
+
+    /**
+     * The children are moved with offsetLeftAndRight and clipped by the layout while drawing.
+     */
+    public static final int MOTION_MODE_OFFSET = DrawerDragHelper.MOTION_OFFSET;
+
+    /**
+     * The children keep fixed layout positions and are moved with translationX, the drawer is
+     * clipped with its clip bounds. A drag only updates RenderNode properties of the children.
+     */
+    public static final int MOTION_MODE_TRANSLATION = DrawerDragHelper.MOTION_TRANSLATION;
+
+    @IntDef({SETTLE_MODE_SCROLLER, SETTLE_MODE_ANIMATOR})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface SettleMode {}
+
+    /**
+     * Settle animations are stepped from computeScroll, each frame is a draw traversal.
+     */
+    public static final int SETTLE_MODE_SCROLLER = DrawerDragHelper.SETTLE_SCROLLER;
+
+    /**
+     * Settle animations are run by an animator that only moves the children. Combined with
+     * {@link #MOTION_MODE_TRANSLATION} a frame only updates RenderNode properties. Listeners
+     * get onDrawerSlide for every animation frame and the exact final state at the end.
+     */
+    public static final int SETTLE_MODE_ANIMATOR = DrawerDragHelper.SETTLE_ANIMATOR;
+
+    @IntDef({CONTENT_TRANSITION_SLIDE, CONTENT_TRANSITION_SCALE})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface ContentTransition {}
+
+    /**
+     * The content slides aside as the drawer opens.
+     */
+    public static final int CONTENT_TRANSITION_SLIDE = 0;
+
+    /**
+     * The content slides aside and scales down with rounded, shadowed corners as the drawer
+     * opens. Corners and shadow need API 21.
+     */
+    public static final int CONTENT_TRANSITION_SCALE = 1;
+
+    private static final float DEFAULT_CONTENT_MIN_SCALE = 0.85f;
+    private static final int DEFAULT_CONTENT_CORNER_RADIUS = 16; // dp
+    private static final int DEFAULT_CONTENT_ELEVATION = 8; // dp
+
+    @IntDef({LAYER_POLICY_OFF, LAYER_POLICY_DRAWER, LAYER_POLICY_BOTH})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface LayerPolicy {}
+
+    /**
+     * Children keep their layer type while the drawer moves.
+     */
+    public static final int LAYER_POLICY_OFF = 0;
+
+    /**
+     * The drawer is drawn from a hardware layer while the drawer moves.
+     */
+    public static final int LAYER_POLICY_DRAWER = 1;
+
+    /**
+     * The drawer and the content are drawn from hardware layers while the drawer moves.
+     */
+    public static final int LAYER_POLICY_BOTH = 2;
+
+    @IntDef({LOCK_MODE_UNLOCKED, LOCK_MODE_LOCKED_CLOSED, LOCK_MODE_LOCKED_OPEN})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface LockMode {}
+
+    /**
+     * The drawer follows touch gestures.
+     */
+    public static final int LOCK_MODE_UNLOCKED = 0;
+
+    /**
+     * The drawer stays closed and ignores touch gestures, it can still be opened from code.
+     */
+    public static final int LOCK_MODE_LOCKED_CLOSED = 1;
+
+    /**
+     * The drawer stays open and ignores touch gestures and the back key, it can still be
+     * closed from code.
+     */
+    public static final int LOCK_MODE_LOCKED_OPEN = 2;
+
+    // A child invalidated this many times with less than RAPID_INVALIDATION_GAP ms in between
+    // would re-render its layer every frame, so it is not drawn from a layer.
+    private static final int RAPID_INVALIDATION_COUNT = 3;
+    private static final long RAPID_INVALIDATION_GAP = 34; // ms, two frames
+
     private static final int MIN_DRAWER_MARGIN = 64; // dp
 
     private static final int DEFAULT_SCRIM_COLOR = 0x99000000;
@@ -72,33 +170,82 @@ public class LeftDrawerLayout extends ViewGroup {
     /** Whether we can use NO_HIDE_DESCENDANTS accessibility importance. */
     private static final boolean CAN_HIDE_DESCENDANTS = Build.VERSION.SDK_INT >= 19;
 
+    /** Whether hardware accelerated invalidations skip invalidateChildInParent (API 26 on). */
+    private static final boolean INVALIDATES_THROUGH_DESCENDANTS = Build.VERSION.SDK_INT >= 26;
+
     private final ChildAccessibilityDelegate mChildAccessibilityDelegate =
             new ChildAccessibilityDelegate();
 
     private int mMinDrawerMargin;
 
     private int mScrimColor = DEFAULT_SCRIM_COLOR;
-    private float mScrimOpacity;
-    private Paint mScrimPaint = new Paint();
+    private ScrimRenderer mScrimRenderer = new RectScrimRenderer();
+    private final Rect mDrawerClipBounds = new Rect();
+    private final DrawerRenderState mRenderState = new DrawerRenderState(DEFAULT_SCRIM_COLOR);
 
     private final DrawerDragHelper mLeftDragger;
     private final ViewDragCallback mLeftCallback;
     private int mDrawerState;
     private boolean mInLayout;
+    private int mLayerPolicy = LAYER_POLICY_OFF;
+    private int mLockMode = LOCK_MODE_UNLOCKED;
+
+    // Edge capture: a closed drawer only opens from a touch in the edge zone, other gestures
+    // bypass the drag helper until the next down event.
+    private boolean mEdgeCaptureOnly;
+    private boolean mGestureOutsideEdge;
+    private int mContentTransition = CONTENT_TRANSITION_SLIDE;
+    private final ContentScaleTransition mScaleTransition;
+    private final Rect mScrimBounds = new Rect();
+    private boolean mEdgeShadowEnabled;
+    private DrawerEdgeShadow mEdgeShadow;
+
+    // While the drawer is closed and idle it is fully covered, see setDrawerHibernationEnabled.
+    private boolean mHibernationEnabled;
+    private boolean mDrawerHibernating;
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    // The content is drawn from a bitmap while a gesture moves it, see setContentSnapshotEnabled.
+    private boolean mSnapshotEnabled;
+    private Bitmap mContentSnapshot;
+    private SnapshotBitmapPool mSnapshotPool;
+    private Canvas mSnapshotCanvas;
+    private ScrimRenderer mSnapshotScrimRenderer;
+    // A layout request arrived while the drawer was dragging or settling, see requestLayout.
+    private boolean mLayoutDeferred;
     private boolean mFirstLayout = true;
 
     private boolean mDisallowInterceptRequested;
     private boolean mChildrenCanceledTouch;
 
+    // Nested scrolling: a horizontally scrolling child in the content hands its overscroll to
+    // the drawer, which is dragged by it, and its fling once the drawer moved.
+    private final NestedScrollingParentHelper mNestedScrollingParentHelper =
+            new NestedScrollingParentHelper(this);
+    private boolean mNestedScrollInProgress;
+
+    private boolean mScrollAwareCaptureEnabled = true;
+    private final ScrollableDescendantIndex mScrollableIndex = new ScrollableDescendantIndex();
+    private float mNestedFlingVelocityX;
+
     private @Nullable
     DrawerListener mListener;
     private List<DrawerListener> mListeners;
 
+    private List<OnRevealedRegionChangeListener> mRevealedRegionListeners;
+    private final Rect mRevealedRegion = new Rect();
+    private final Rect mContentBounds = new Rect();
+
     private float mInitialMotionX;
     private float mInitialMotionY;
 
     private final ArrayList<View> mNonDrawerViews;
 
+    // Role index of the children, kept in sync from onViewAdded/onViewRemoved so that
+    // the drawer and the content can be resolved without walking the children.
+    private View mDrawerChild;
+    private View mContentChild;
+
     /**
      * Listener for monitoring events about drawers.
      */
@@ -114,6 +261,19 @@ public class LeftDrawerLayout extends ViewGroup {
     }
 
 
+    /**
+     * Listener for the region of this layout that the content does not cover.
+     */
+    public interface OnRevealedRegionChangeListener {
+
+        /**
+         * @param revealed bounds of the part of this layout the content does not cover, in
+         *                 this layout's coordinates, empty while the drawer is closed. Only
+         *                 valid during the call.
+         */
+        void onRevealedRegionChanged(LeftDrawerLayout drawerLayout, Rect revealed);
+    }
+
     public static abstract class SimpleDrawerListener implements DrawerListener {
 
         @Override
@@ -146,6 +306,8 @@ public class LeftDrawerLayout extends ViewGroup {
         setDescendantFocusability(ViewGroup.FOCUS_AFTER_DESCENDANTS);
         final float density = getResources().getDisplayMetrics().density;
         mMinDrawerMargin = (int) (MIN_DRAWER_MARGIN * density + 0.5f);
+        mScaleTransition = new ContentScaleTransition(DEFAULT_CONTENT_MIN_SCALE,
+                DEFAULT_CONTENT_CORNER_RADIUS * density, DEFAULT_CONTENT_ELEVATION * density);
         final float minVel = MIN_FLING_VELOCITY * density;
 
         mLeftCallback = new ViewDragCallback();
@@ -167,11 +329,472 @@ public class LeftDrawerLayout extends ViewGroup {
         mNonDrawerViews = new ArrayList<>();
     }
 
+    /**
+     * Set how the drawer and the content are moved, either {@link #MOTION_MODE_OFFSET} (default)
+     * or {@link #MOTION_MODE_TRANSLATION}.
+     */
+    public void setMotionMode(@MotionMode int motionMode) {
+        if (motionMode == mLeftDragger.getMotionMode()) {
+            return;
+        }
+        mLeftDragger.abort();
+        mLeftDragger.setMotionMode(motionMode);
+
+        final int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            final View child = getChildAt(i);
+            ViewCompat.setTranslationX(child, 0);
+            child.setClipBounds(null);
+            child.forceLayout();
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    @MotionMode
+    public int getMotionMode() {
+        return mLeftDragger.getMotionMode();
+    }
+
+    /**
+     * Set how openDrawer/closeDrawer and releases animate, either {@link #SETTLE_MODE_SCROLLER}
+     * (default) or {@link #SETTLE_MODE_ANIMATOR}.
+     */
+    public void setSettleMode(@SettleMode int settleMode) {
+        mLeftDragger.setSettleMode(settleMode);
+    }
+
+    @SettleMode
+    public int getSettleMode() {
+        return mLeftDragger.getSettleMode();
+    }
+
+    /**
+     * Set how the release velocity of a drag is estimated. Defaults to a
+     * {@link LeastSquaresVelocityEstimator}, a {@link PlatformVelocityEstimator} uses the
+     * platform VelocityTracker.
+     */
+    public void setVelocityEstimator(@NonNull VelocityEstimator estimator) {
+        mLeftDragger.setVelocityEstimator(estimator);
+    }
+
+    @NonNull
+    public VelocityEstimator getVelocityEstimator() {
+        return mLeftDragger.getVelocityEstimator();
+    }
+
+    /**
+     * Draw the content where the finger is expected to be when the next frame is presented,
+     * instead of a frame or two behind it. Use a {@link LinearTouchPredictor} or a
+     * {@link KalmanTouchPredictor}, null (default) turns prediction off.
+     */
+    public void setTouchPredictor(@Nullable TouchPredictor predictor) {
+        mLeftDragger.setTouchPredictor(predictor);
+    }
+
+    @Nullable
+    public TouchPredictor getTouchPredictor() {
+        return mLeftDragger.getTouchPredictor();
+    }
+
+    /**
+     * Classify each gesture from its first few samples: a clear horizontal swipe drags the
+     * drawer before the full touch slop, and a vertical one is left to the children without
+     * any further drawer work. Off by default.
+     */
+    public void setGestureIntentEnabled(boolean enabled) {
+        mLeftDragger.setGestureIntentEnabled(enabled);
+    }
+
+    public boolean isGestureIntentEnabled() {
+        return mLeftDragger.isGestureIntentEnabled();
+    }
+
+    /**
+     * Lock the drawer: {@link #LOCK_MODE_UNLOCKED} (default), {@link #LOCK_MODE_LOCKED_CLOSED}
+     * or {@link #LOCK_MODE_LOCKED_OPEN}. A locked drawer is moved to its state and touch events
+     * no longer reach the drag helper at all.
+     */
+    public void setDrawerLockMode(@LockMode int lockMode) {
+        if (mLockMode == lockMode) {
+            return;
+        }
+        mLockMode = lockMode;
+        if (lockMode == LOCK_MODE_UNLOCKED) {
+            return;
+        }
+        if (mLeftDragger.getViewDragState() == STATE_SETTLING) {
+            // The settle is retargeted below.
+            mLeftDragger.cancel();
+        } else {
+            // Ends a drag in progress and goes idle, even with no drawer to settle.
+            mLeftDragger.abort();
+        }
+        if (hasDrawerChildren()) {
+            if (lockMode == LOCK_MODE_LOCKED_OPEN) {
+                openDrawer();
+            } else {
+                closeDrawer();
+            }
+        }
+    }
+
+    @LockMode
+    public int getDrawerLockMode() {
+        return mLockMode;
+    }
+
+    /**
+     * Only open the drawer from gestures that start in the edge zone along the left side of
+     * this layout. Touches anywhere else on a closed drawer skip the drag helper completely.
+     * An open drawer still closes from anywhere. Off by default.
+     */
+    public void setEdgeCaptureOnly(boolean edgeCaptureOnly) {
+        mEdgeCaptureOnly = edgeCaptureOnly;
+    }
+
+    public boolean isEdgeCaptureOnly() {
+        return mEdgeCaptureOnly;
+    }
+
+    /**
+     * @param width width in dp of the edge zone, 20dp by default
+     */
+    public void setEdgeZoneWidth(float width) {
+        final float density = getResources().getDisplayMetrics().density;
+        mLeftDragger.setEdgeSize((int) (width * density + 0.5f));
+    }
+
+    /**
+     * @return width in dp of the edge zone
+     */
+    public float getEdgeZoneWidth() {
+        return mLeftDragger.getEdgeSize() / getResources().getDisplayMetrics().density;
+    }
+
+    /**
+     * @return whether a gesture starting at the point, in the coordinates of this layout,
+     * cannot move the drawer in edge capture mode
+     */
+    private boolean isOutsideEdgeCapture(float x) {
+        return mEdgeCaptureOnly && x >= mLeftDragger.getEdgeSize()
+                && mLeftDragger.getViewDragState() == STATE_IDLE
+                && (mContentChild == null || mLeftDragger.getViewLeft(mContentChild) <= 0);
+    }
+
+    /**
+     * Leave gestures that start over a horizontally scrollable view in the content, such as a
+     * ViewPager or a carousel, to that view as long as it can scroll in the direction of the
+     * gesture. Only applies while the drawer is closed. On by default.
+     */
+    public void setScrollAwareCaptureEnabled(boolean enabled) {
+        mScrollAwareCaptureEnabled = enabled;
+        if (!enabled) {
+            mScrollableIndex.clear();
+        }
+    }
+
+    public boolean isScrollAwareCaptureEnabled() {
+        return mScrollAwareCaptureEnabled;
+    }
+
+    /**
+     * @return the topmost horizontally scrollable descendant of the content under the point,
+     * which is in the coordinates of this layout
+     */
+    View findScrollableDescendantAt(int x, int y) {
+        final View content = mContentChild;
+        if (!mScrollAwareCaptureEnabled || content == null) {
+            return null;
+        }
+        return mScrollableIndex.find(content, x - content.getLeft(), y - content.getTop());
+    }
+
+    /**
+     * Move the drawer once per frame while it is dragged, however many touch events arrive in
+     * between, and keep subpixel finger movement instead of truncating each event's share.
+     * Off by default.
+     */
+    public void setFrameCoalescingEnabled(boolean enabled) {
+        mLeftDragger.setFrameCoalescingEnabled(enabled);
+    }
+
+    public boolean isFrameCoalescingEnabled() {
+        return mLeftDragger.isFrameCoalescingEnabled();
+    }
+
+    /**
+     * Set which children are promoted to hardware layers while the drawer is dragging or
+     * settling: {@link #LAYER_POLICY_OFF} (default), {@link #LAYER_POLICY_DRAWER} or
+     * {@link #LAYER_POLICY_BOTH}. Children return to their own layer type once idle, and a child
+     * that keeps invalidating is never promoted.
+     */
+    public void setLayerPolicy(@LayerPolicy int layerPolicy) {
+        if (mLayerPolicy == layerPolicy) {
+            return;
+        }
+        restoreChildLayers();
+        mLayerPolicy = layerPolicy;
+        if (mDrawerState != STATE_IDLE) {
+            promoteChildLayers();
+        }
+    }
+
+    @LayerPolicy
+    public int getLayerPolicy() {
+        return mLayerPolicy;
+    }
+
+    /**
+     * Set how the content follows the drawer: {@link #CONTENT_TRANSITION_SLIDE} (default) or
+     * {@link #CONTENT_TRANSITION_SCALE}. The scale transition only changes view properties of
+     * the content, so a frame of a drag neither re-records nor lays out the content.
+     */
+    public void setContentTransition(@ContentTransition int transition) {
+        if (mContentTransition == transition) {
+            return;
+        }
+        mContentTransition = transition;
+        if (transition == CONTENT_TRANSITION_SCALE) {
+            if (mContentChild != null) {
+                mScaleTransition.attach(mContentChild);
+                updateContentTransition();
+            }
+        } else {
+            mScaleTransition.detach();
+            updateRevealedRegion();
+        }
+        invalidate();
+    }
+
+    @ContentTransition
+    public int getContentTransition() {
+        return mContentTransition;
+    }
+
+    /**
+     * @param minScale scale of the content while the drawer is open, for
+     *                 {@link #CONTENT_TRANSITION_SCALE}
+     */
+    public void setContentMinScale(float minScale) {
+        mScaleTransition.setMinScale(minScale);
+        updateRevealedRegion();
+    }
+
+    public float getContentMinScale() {
+        return mScaleTransition.getMinScale();
+    }
+
+    /**
+     * @param radius corner radius in pixels of the content while the drawer is open, for
+     *               {@link #CONTENT_TRANSITION_SCALE}
+     */
+    public void setContentCornerRadius(float radius) {
+        mScaleTransition.setCornerRadius(radius);
+    }
+
+    public float getContentCornerRadius() {
+        return mScaleTransition.getCornerRadius();
+    }
+
+    /**
+     * @param elevation elevation in pixels of the content while the drawer is open, for
+     *                  {@link #CONTENT_TRANSITION_SCALE}
+     */
+    public void setContentElevation(float elevation) {
+        mScaleTransition.setElevation(elevation);
+    }
+
+    public float getContentElevation() {
+        return mScaleTransition.getElevation();
+    }
+
+    /**
+     * While enabled, the content casts a shadow onto the drawer along its left edge. The shadow
+     * fades in as the drawer opens.
+     */
+    public void setEdgeShadowEnabled(boolean enabled) {
+        if (enabled && mEdgeShadow == null) {
+            mEdgeShadow = new DrawerEdgeShadow(getResources().getDisplayMetrics());
+        }
+        mEdgeShadowEnabled = enabled;
+        invalidate();
+    }
+
+    public boolean isEdgeShadowEnabled() {
+        return mEdgeShadowEnabled;
+    }
+
+    private void updateContentTransition() {
+        if (mContentTransition == CONTENT_TRANSITION_SCALE && mDrawerChild != null) {
+            // The content moves CONTENT_OFFSET_FACTOR times as far as the drawer, it reaches
+            // its final place when the drawer is open.
+            final float onScreen = ((LayoutParams) mDrawerChild.getLayoutParams()).onScreen;
+            mScaleTransition.setProgress((onScreen - DRAWER_ON_SCREEN) * CONTENT_OFFSET_FACTOR);
+        }
+        // The position and scale of the content decide what it reveals.
+        updateRevealedRegion();
+    }
+
+    /**
+     * While enabled, a closed and idle drawer is skipped by measure, layout and draw, and its
+     * invalidations are dropped before API 26, or in software rendering. Its visibility is left
+     * alone. It is brought back up to date
+     * before the first frame that reveals it: when a drag captures the content or when the
+     * drawer is opened.
+     */
+    public void setDrawerHibernationEnabled(boolean enabled) {
+        mHibernationEnabled = enabled;
+        if (enabled) {
+            updateDrawerHibernation();
+        } else {
+            wakeDrawer();
+        }
+    }
+
+    public boolean isDrawerHibernationEnabled() {
+        return mHibernationEnabled;
+    }
+
+    /**
+     * While enabled, the content is drawn into a bitmap when a drag captures it and the bitmap is
+     * moved during the drag and the following settle instead of redrawing the content. The live
+     * content is drawn again once the drawer is idle. Content that only renders in hardware,
+     * such as a TextureView or a SurfaceView, is not part of the snapshot.
+     */
+    public void setContentSnapshotEnabled(boolean enabled) {
+        mSnapshotEnabled = enabled;
+        if (!enabled) {
+            releaseContentSnapshot();
+            if (mSnapshotPool != null) {
+                mSnapshotPool.clear();
+            }
+        }
+    }
+
+    public boolean isContentSnapshotEnabled() {
+        return mSnapshotEnabled;
+    }
+
+    private void captureContentSnapshot() {
+        final View contentView = mContentChild;
+        if (!mSnapshotEnabled || mContentSnapshot != null || contentView == null
+                || contentView.getWidth() <= 0 || contentView.getHeight() <= 0) {
+            return;
+        }
+        if (mSnapshotPool == null) {
+            mSnapshotPool = new SnapshotBitmapPool();
+            mSnapshotCanvas = new Canvas();
+            if (ViewCompat.isAttachedToWindow(this)) {
+                getContext().getApplicationContext().registerComponentCallbacks(mSnapshotPool);
+            }
+        }
+
+        final Bitmap snapshot = mSnapshotPool.acquire(contentView.getWidth(), contentView.getHeight());
+        snapshot.eraseColor(Color.TRANSPARENT);
+        mSnapshotCanvas.setBitmap(snapshot);
+        // The scrim is drawn over the snapshot in the parent, keep it out of the bitmap.
+        mScrimRenderer.onScrimChanged(contentView, Color.TRANSPARENT);
+        contentView.draw(mSnapshotCanvas);
+        mScrimRenderer.onScrimChanged(contentView, mRenderState.getScrimColor());
+        mSnapshotCanvas.setBitmap(null);
+        mContentSnapshot = snapshot;
+        restoreChildLayer(contentView);
+        invalidate();
+    }
+
+    private void releaseContentSnapshot() {
+        if (mContentSnapshot != null) {
+            mSnapshotPool.release(mContentSnapshot);
+            mContentSnapshot = null;
+            invalidate();
+        }
+    }
+
+    private void updateDrawerHibernation() {
+        final View drawerView = mDrawerChild;
+        if (!mHibernationEnabled || mDrawerHibernating || mFirstLayout || drawerView == null
+                || mContentChild == null || mDrawerState != STATE_IDLE
+                || drawerView.getVisibility() != VISIBLE
+                || ((LayoutParams) drawerView.getLayoutParams()).onScreen > DRAWER_ON_SCREEN) {
+            return;
+        }
+        // The drawer keeps its visibility, its invalidations are dropped in
+        // invalidateChildInParent instead.
+        mDrawerHibernating = true;
+        restoreChildLayer(drawerView);
+    }
+
+    private void wakeDrawer() {
+        if (!mDrawerHibernating) {
+            return;
+        }
+        mDrawerHibernating = false;
+
+        final View drawerView = mDrawerChild;
+        if (drawerView == null) {
+            return;
+        }
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (drawerView.isLayoutRequested()
+                || !lp.isMeasuredFor(mLastWidthMeasureSpec, mLastHeightMeasureSpec)) {
+            // Catch up on the passes skipped while hibernating so that the first revealed
+            // frame is current.
+            measureDrawerChild(drawerView, lp, mLastWidthMeasureSpec, mLastHeightMeasureSpec);
+            final int left = drawerView.getLeft();
+            drawerView.layout(left, lp.topMargin, left + drawerView.getMeasuredWidth(),
+                    lp.topMargin + drawerView.getMeasuredHeight());
+        }
+        // Pick up the invalidations dropped while hibernating.
+        drawerView.invalidate();
+    }
+
     public void setScrimColor(@ColorInt int color) {
         mScrimColor = color;
+        mRenderState.setScrimColor(color);
+        dispatchScrimChanged();
         invalidate();
     }
 
+    /**
+     * Set how the scrim is drawn over the content. Defaults to a {@link RectScrimRenderer}.
+     * The renderer can be switched at any time, the previous one is detached from the content.
+     */
+    public void setScrimRenderer(@NonNull ScrimRenderer renderer) {
+        if (renderer == mScrimRenderer) {
+            return;
+        }
+        final View contentView = mContentChild;
+        if (contentView != null) {
+            mScrimRenderer.onDetach(contentView);
+        }
+        mScrimRenderer = renderer;
+        if (contentView != null) {
+            restoreChildLayer(contentView);
+            attachScrimRenderer();
+            if (mDrawerState != STATE_IDLE) {
+                promoteChildLayers();
+            }
+        }
+        invalidate();
+    }
+
+    @NonNull
+    public ScrimRenderer getScrimRenderer() {
+        return mScrimRenderer;
+    }
+
+    private void dispatchScrimChanged() {
+        if (mRenderState.updateScrim() && mContentChild != null) {
+            mScrimRenderer.onDrawerProgress(mContentChild, getScrimProgress());
+            mScrimRenderer.onScrimChanged(mContentChild, mRenderState.getScrimColor());
+        }
+    }
+
+    private float getScrimProgress() {
+        return (mRenderState.getScrimOpacity() - DRAWER_ON_SCREEN) / (1.0f - DRAWER_ON_SCREEN);
+    }
+
     @Deprecated
     public void setDrawerListener(DrawerListener listener) {
         // The logic in this method emulates what we had before support for multiple
@@ -208,6 +831,99 @@ public class LeftDrawerLayout extends ViewGroup {
         mListeners.remove(listener);
     }
 
+    public void addOnRevealedRegionChangeListener(@NonNull OnRevealedRegionChangeListener listener) {
+        if (listener == null) {
+            return;
+        }
+        if (mRevealedRegionListeners == null) {
+            mRevealedRegionListeners = new ArrayList<>();
+        }
+        mRevealedRegionListeners.add(listener);
+    }
+
+    public void removeOnRevealedRegionChangeListener(
+            @NonNull OnRevealedRegionChangeListener listener) {
+        if (listener == null || mRevealedRegionListeners == null) {
+            return;
+        }
+        mRevealedRegionListeners.remove(listener);
+    }
+
+    /**
+     * Get the bounds of the region of this layout that the content does not cover, which is
+     * where views behind this layout can show through. Empty while the drawer is closed.
+     *
+     * @param outRect receives the region in this layout's coordinates
+     */
+    public void getRevealedRegion(Rect outRect) {
+        outRect.set(mRevealedRegion);
+    }
+
+    private void updateRevealedRegion() {
+        final int width = getWidth();
+        final int height = getHeight();
+        final View contentView = mContentChild;
+        final Rect content = mContentBounds;
+        if (contentView == null) {
+            content.setEmpty();
+        } else {
+            final int left = mLeftDragger.getViewLeft(contentView);
+            content.set(left, contentView.getTop(), left + contentView.getWidth(),
+                    contentView.getBottom());
+            if (mContentTransition == CONTENT_TRANSITION_SCALE) {
+                applyContentScale(contentView, content);
+            }
+            if (!content.intersect(0, 0, width, height)) {
+                content.setEmpty();
+            }
+        }
+
+        // Bounding box of the part of the layout outside the content: the strip left of it,
+        // and with a scaled content also the strips above, below and right of it.
+        final boolean coversWidth = content.left <= 0 && content.right >= width;
+        final boolean coversHeight = content.top <= 0 && content.bottom >= height;
+        final int left, top, right, bottom;
+        if (coversWidth && coversHeight) {
+            left = top = right = bottom = 0;
+        } else if (coversHeight) {
+            left = content.left > 0 ? 0 : content.right;
+            right = content.right < width ? width : content.left;
+            top = 0;
+            bottom = height;
+        } else if (coversWidth) {
+            left = 0;
+            right = width;
+            top = content.top > 0 ? 0 : content.bottom;
+            bottom = content.bottom < height ? height : content.top;
+        } else {
+            left = top = 0;
+            right = width;
+            bottom = height;
+        }
+
+        final Rect revealed = mRevealedRegion;
+        if (left >= right || top >= bottom) {
+            if (revealed.isEmpty()) {
+                return;
+            }
+            revealed.setEmpty();
+        } else {
+            if (revealed.left == left && revealed.top == top && revealed.right == right
+                    && revealed.bottom == bottom) {
+                return;
+            }
+            revealed.set(left, top, right, bottom);
+        }
+
+        if (mRevealedRegionListeners != null) {
+            // Notify the listeners from the end of the list so that a listener may remove itself.
+            int listenerCount = mRevealedRegionListeners.size();
+            for (int i = listenerCount - 1; i >= 0; i--) {
+                mRevealedRegionListeners.get(i).onRevealedRegionChanged(this, revealed);
+            }
+        }
+    }
+
     void updateDrawerState(@State int activeState, View activeDrawer) {
         final int leftState = mLeftDragger.getViewDragState();
 
@@ -232,6 +948,15 @@ public class LeftDrawerLayout extends ViewGroup {
         if (state != mDrawerState) {
             mDrawerState = state;
 
+            if (state == STATE_IDLE) {
+                releaseContentSnapshot();
+                restoreChildLayers();
+                flushDeferredLayout();
+                updateDrawerHibernation();
+            } else {
+                promoteChildLayers();
+            }
+
             if (mListeners != null) {
                 // Notify the listeners. Do that from the end of the list so that if a listener
                 // removes itself as the result of being called, it won't mess up with our iteration
@@ -243,6 +968,86 @@ public class LeftDrawerLayout extends ViewGroup {
         }
     }
 
+    private void promoteChildLayers() {
+        if (mLayerPolicy == LAYER_POLICY_OFF) {
+            return;
+        }
+        promoteChildLayer(mDrawerChild);
+        if (mLayerPolicy == LAYER_POLICY_BOTH && !mScrimRenderer.usesContentLayer()
+                && mContentSnapshot == null) {
+            promoteChildLayer(mContentChild);
+        }
+    }
+
+    private void promoteChildLayer(View child) {
+        if (child == null || child.getVisibility() != VISIBLE) {
+            return;
+        }
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        final int layerType = ViewCompat.getLayerType(child);
+        if (lp.promotedToLayer || layerType == ViewCompat.LAYER_TYPE_HARDWARE
+                || lp.isInvalidatingRapidly(SystemClock.uptimeMillis())) {
+            return;
+        }
+        lp.promotedToLayer = true;
+        lp.layerTypeBeforePromotion = layerType;
+        ViewCompat.setLayerType(child, ViewCompat.LAYER_TYPE_HARDWARE, null);
+    }
+
+    private void restoreChildLayers() {
+        restoreChildLayer(mDrawerChild);
+        restoreChildLayer(mContentChild);
+    }
+
+    private void restoreChildLayer(View child) {
+        if (child == null) {
+            return;
+        }
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (lp.promotedToLayer) {
+            lp.promotedToLayer = false;
+            ViewCompat.setLayerType(child, lp.layerTypeBeforePromotion, null);
+        }
+    }
+
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        // location holds the left/top of the invalidating child when we are its direct parent.
+        final long now = SystemClock.uptimeMillis();
+        final View child = findInvalidatedChild(location);
+        if (mDrawerHibernating && child == mDrawerChild) {
+            return null;
+        }
+        noteChildInvalidated(child, now);
+        return super.invalidateChildInParent(location, dirty);
+    }
+
+    private View findInvalidatedChild(int[] location) {
+        final View drawerView = mDrawerChild;
+        if (drawerView != null && drawerView.getLeft() == location[0]
+                && drawerView.getTop() == location[1]) {
+            return drawerView;
+        }
+        final View contentView = mContentChild;
+        if (contentView != null && contentView.getLeft() == location[0]
+                && contentView.getTop() == location[1]) {
+            return contentView;
+        }
+        return null;
+    }
+
+    private void noteChildInvalidated(View child, long now) {
+        if (child == null || child != mDrawerChild && child != mContentChild) {
+            return;
+        }
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        lp.noteInvalidated(now);
+        if (lp.promotedToLayer && lp.isInvalidatingRapidly(now)) {
+            // The layer would be re-rendered on every frame, draw the child directly instead.
+            restoreChildLayer(child);
+        }
+    }
+
     void dispatchOnDrawerClosed(View drawerView) {
         final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
         if ((lp.openState & LayoutParams.FLAG_IS_OPENED) == 1) {
@@ -328,6 +1133,9 @@ public class LeftDrawerLayout extends ViewGroup {
         if (slideOffset == lp.onScreen) {
             return;
         }
+        if (slideOffset > DRAWER_ON_SCREEN) {
+            wakeDrawer();
+        }
 
         if (slideOffset < DRAWER_ON_SCREEN) {
             slideOffset = DRAWER_ON_SCREEN;
@@ -336,9 +1144,30 @@ public class LeftDrawerLayout extends ViewGroup {
             slideOffset = 1.0f;
         }
         lp.onScreen = slideOffset;
+        mRenderState.setDrawerOffset(slideOffset);
+        dispatchScrimChanged();
+        updateContentTransition();
+        updateDrawerClipBounds();
         dispatchOnDrawerSlide(drawerView, slideOffset);
     }
 
+    /**
+     * In {@link #MOTION_MODE_TRANSLATION} the drawer is clipped to the part left of the content
+     * through its clip bounds, which is a RenderNode property, instead of a per frame clipRect.
+     */
+    private void updateDrawerClipBounds() {
+        final View drawerView = mDrawerChild;
+        final View contentView = mContentChild;
+        if (mLeftDragger.getMotionMode() != MOTION_MODE_TRANSLATION
+                || drawerView == null || contentView == null) {
+            return;
+        }
+        final int visibleWidth = mLeftDragger.getViewLeft(contentView)
+                - mLeftDragger.getViewLeft(drawerView);
+        mDrawerClipBounds.set(0, 0, Math.max(0, visibleWidth), drawerView.getHeight());
+        drawerView.setClipBounds(mDrawerClipBounds);
+    }
+
     float getDrawerViewOffset(View drawerView) {
         if (drawerView == null) {
             return 0;
@@ -365,8 +1194,8 @@ public class LeftDrawerLayout extends ViewGroup {
             return;
         }
 
-        int drawerLeft = drawerView.getLeft();
-        int contentLeft = contentView.getLeft();
+        int drawerLeft = mLeftDragger.getViewLeft(drawerView);
+        int contentLeft = mLeftDragger.getViewLeft(contentView);
         int drawerTarget;
         int contentTarget;
 
@@ -378,8 +1207,13 @@ public class LeftDrawerLayout extends ViewGroup {
             contentTarget = drawerView.getWidth();
         }
 
-        drawerView.offsetLeftAndRight(drawerTarget - drawerLeft);
-        contentView.offsetLeftAndRight(contentTarget - contentLeft);
+        if (mLeftDragger.getMotionMode() == MOTION_MODE_TRANSLATION) {
+            ViewCompat.setTranslationX(drawerView, drawerTarget - drawerView.getLeft());
+            ViewCompat.setTranslationX(contentView, contentTarget - contentView.getLeft());
+        } else {
+            drawerView.offsetLeftAndRight(drawerTarget - drawerLeft);
+            contentView.offsetLeftAndRight(contentTarget - contentLeft);
+        }
 
         if (start) {
             setDrawerViewOffset(drawerView, DRAWER_ON_SCREEN);
@@ -392,12 +1226,27 @@ public class LeftDrawerLayout extends ViewGroup {
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         mFirstLayout = true;
+        final ViewTreeObserver observer = getViewTreeObserver();
+        observer.removeOnGlobalLayoutListener(mScrollableIndex);
+        observer.removeOnScrollChangedListener(mScrollableIndex);
+        mScrollableIndex.clear();
+        if (mSnapshotPool != null) {
+            releaseContentSnapshot();
+            getContext().getApplicationContext().unregisterComponentCallbacks(mSnapshotPool);
+            mSnapshotPool.clear();
+        }
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
         mFirstLayout = true;
+        final ViewTreeObserver observer = getViewTreeObserver();
+        observer.addOnGlobalLayoutListener(mScrollableIndex);
+        observer.addOnScrollChangedListener(mScrollableIndex);
+        if (mSnapshotPool != null) {
+            getContext().getApplicationContext().registerComponentCallbacks(mSnapshotPool);
+        }
     }
 
     @Override
@@ -433,6 +1282,8 @@ public class LeftDrawerLayout extends ViewGroup {
         }
 
         setMeasuredDimension(widthSize, heightSize);
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
 
         final int layoutDirection = ViewCompat.getLayoutDirection(this);
 
@@ -449,6 +1300,8 @@ public class LeftDrawerLayout extends ViewGroup {
 
             final LayoutParams lp = (LayoutParams) child.getLayoutParams();
 
+            // View.measure already returns early for a child that did not request a layout and
+            // is offered the same specs, so a relayout inside one child leaves the other alone.
             if (isContentView(child)) {
                 // Content views get measured at exactly the layout's size.
                 final int contentWidthSpec = MeasureSpec.makeMeasureSpec(
@@ -463,13 +1316,11 @@ public class LeftDrawerLayout extends ViewGroup {
                             "drawer view along that edge");
                 }
                 hasDrawerOnLeftEdge = true;
-                final int drawerWidthSpec = getChildMeasureSpec(widthMeasureSpec,
-                        mMinDrawerMargin + lp.leftMargin + lp.rightMargin,
-                        lp.width);
-                final int drawerHeightSpec = getChildMeasureSpec(heightMeasureSpec,
-                        lp.topMargin + lp.bottomMargin,
-                        lp.height);
-                child.measure(drawerWidthSpec, drawerHeightSpec);
+                if (child == mDrawerChild && mDrawerHibernating) {
+                    // A hibernating drawer keeps its layout request until wakeDrawer.
+                    continue;
+                }
+                measureDrawerChild(child, lp, widthMeasureSpec, heightMeasureSpec);
             } else {
                 throw new IllegalStateException("Child " + child + " at index " + i +
                         " does not have a valid layout_gravity - must be Gravity.LEFT, " +
@@ -478,10 +1329,25 @@ public class LeftDrawerLayout extends ViewGroup {
         }
     }
 
+    private void measureDrawerChild(View child, LayoutParams lp,
+                                    int widthMeasureSpec, int heightMeasureSpec) {
+        final int drawerWidthSpec = getChildMeasureSpec(widthMeasureSpec,
+                mMinDrawerMargin + lp.leftMargin + lp.rightMargin,
+                lp.width);
+        final int drawerHeightSpec = getChildMeasureSpec(heightMeasureSpec,
+                lp.topMargin + lp.bottomMargin,
+                lp.height);
+        child.measure(drawerWidthSpec, drawerHeightSpec);
+        lp.setMeasuredFor(widthMeasureSpec, heightMeasureSpec);
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         mInLayout = true;
 
+        // In translation mode both children keep their closed position and the offset is
+        // applied as translationX.
+        final boolean translate = mLeftDragger.getMotionMode() == MOTION_MODE_TRANSLATION;
         int drawerOffset = 0;
 
         View drawer = findDrawer();
@@ -498,12 +1364,22 @@ public class LeftDrawerLayout extends ViewGroup {
             final float newOffset = (float) (childWidth + childLeft) / childWidth;
             final boolean changeOffset = newOffset != lp.onScreen;
 
-            drawer.layout(childLeft, lp.topMargin, childLeft + childWidth,
-                    lp.topMargin + childHeight);
+            final int layoutLeft = translate
+                    ? -childWidth + (int) (childWidth * DRAWER_ON_SCREEN) : childLeft;
+            if (!mDrawerHibernating) {
+                drawer.layout(layoutLeft, lp.topMargin, layoutLeft + childWidth,
+                        lp.topMargin + childHeight);
+            }
+            if (translate) {
+                ViewCompat.setTranslationX(drawer, childLeft - layoutLeft);
+            }
 
             if (changeOffset) {
                 setDrawerViewOffset(drawer, newOffset);
             }
+            // openDrawer/closeDrawer before the first layout assign onScreen directly.
+            mRenderState.setDrawerOffset(lp.onScreen);
+            dispatchScrimChanged();
             drawerOffset = (int) (childWidth * lp.onScreen) - (int) (childWidth * DRAWER_ON_SCREEN);
         }
 
@@ -512,32 +1388,50 @@ public class LeftDrawerLayout extends ViewGroup {
             final LayoutParams lp = (LayoutParams) content.getLayoutParams();
 
             int contentOffset = drawerOffset * CONTENT_OFFSET_FACTOR;
-            content.layout(contentOffset + lp.leftMargin, lp.topMargin,
-                    contentOffset + lp.leftMargin + content.getMeasuredWidth(),
+            final int layoutLeft = translate ? lp.leftMargin : contentOffset + lp.leftMargin;
+            content.layout(layoutLeft, lp.topMargin,
+                    layoutLeft + content.getMeasuredWidth(),
                     lp.topMargin + content.getMeasuredHeight());
+            if (translate) {
+                ViewCompat.setTranslationX(content, contentOffset);
+            }
         }
 
+        updateContentTransition();
+        updateDrawerClipBounds();
+        mRenderState.invalidateBounds();
         mInLayout = false;
         mFirstLayout = false;
+        updateDrawerHibernation();
     }
 
     @Override
     public void requestLayout() {
-        if (!mInLayout) {
+        if (mInLayout) {
+            return;
+        }
+        if (mDrawerState != STATE_IDLE && !mFirstLayout) {
+            // Layout is frozen while the drawer moves: a pass now would re-position the children
+            // from LayoutParams.onScreen and fight the offsets applied by the drag helper. The
+            // requesting child keeps its own layout request flag, which View.measure and
+            // View.layout key on, so the pass run once the drawer is idle again only measures
+            // and lays out that child.
+            mLayoutDeferred = true;
+            return;
+        }
+        super.requestLayout();
+    }
+
+    private void flushDeferredLayout() {
+        if (mLayoutDeferred) {
+            mLayoutDeferred = false;
+            // A single pass for everything requested during the gesture.
             super.requestLayout();
         }
     }
 
     @Override
     public void computeScroll() {
-        final int childCount = getChildCount();
-        float scrimOpacity = 0;
-        for (int i = 0; i < childCount; i++) {
-            final float onscreen = ((LayoutParams) getChildAt(i).getLayoutParams()).onScreen;
-            scrimOpacity = Math.max(scrimOpacity, onscreen);
-        }
-        mScrimOpacity = scrimOpacity;
-
         if (mLeftDragger.continueSettling(true)) {
             ViewCompat.postInvalidateOnAnimation(this);
         }
@@ -548,35 +1442,125 @@ public class LeftDrawerLayout extends ViewGroup {
         super.onDraw(c);
     }
 
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+
+        // After all children, so the shadow is on top of the drawer whatever the child order.
+        final View contentView = mContentChild;
+        final DrawerRenderState renderState = mRenderState;
+        if (mEdgeShadowEnabled && contentView != null && renderState.isScrimVisible()) {
+            final Rect bounds = getScrimBounds(contentView, renderState.getContentLeft(),
+                    renderState.getClipRight(), renderState);
+            mEdgeShadow.draw(canvas, bounds.left, bounds.top, bounds.bottom, getScrimProgress());
+        }
+    }
+
     @Override
     protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
-        final boolean drawingContent = isContentView(child);
-        int clipLeft = child.getLeft();
-        int clipRight = getWidth();
-        if (!drawingContent) {
-            View contentView = findContent();
-            if (contentView != null) {
-                clipRight = contentView.getLeft();
-            }
+        if (mDrawerHibernating && child == mDrawerChild) {
+            return false;
         }
 
-        final int restoreCount = canvas.save();
-        canvas.clipRect(clipLeft, 0, clipRight, getHeight());
-        final boolean result = super.drawChild(canvas, child, drawingTime);
-        canvas.restoreToCount(restoreCount);
+        final DrawerRenderState renderState = mRenderState;
+        dispatchScrimChanged();
+        if (renderState.isDirty()) {
+            final int drawerLeft = mDrawerChild != null ? mLeftDragger.getViewLeft(mDrawerChild) : 0;
+            final int contentLeft = mContentChild != null
+                    ? mLeftDragger.getViewLeft(mContentChild) : getWidth();
+            renderState.update(drawerLeft, contentLeft, getWidth(), getHeight());
+        }
 
-        if (mScrimOpacity > DRAWER_ON_SCREEN && drawingContent) {
-            final int baseAlpha = (mScrimColor & 0xff000000) >>> 24;
-            final int imag = (int) (baseAlpha * (mScrimOpacity - DRAWER_ON_SCREEN));
-            final int color = imag << 24 | (mScrimColor & 0xffffff);
-            mScrimPaint.setColor(color);
+        final boolean drawingContent = child == mContentChild;
+        final int clipLeft;
+        final int clipRight;
+        if (drawingContent) {
+            clipLeft = renderState.getContentLeft();
+            clipRight = renderState.getClipRight();
+        } else {
+            clipLeft = renderState.getDrawerClipLeft();
+            clipRight = renderState.getDrawerClipRight();
+        }
 
-            canvas.drawRect(clipLeft, 0, clipRight, getHeight(), mScrimPaint);
+        if (INVALIDATES_THROUGH_DESCENDANTS && canvas.isHardwareAccelerated() && child.isDirty()) {
+            // invalidateChildInParent missed it, count it when the child is redrawn instead.
+            noteChildInvalidated(child, SystemClock.uptimeMillis());
+        }
+        if (drawingContent && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                && child.isDirty()) {
+            mScrimRenderer.onContentInvalidated(child);
+        }
+
+        final boolean result;
+        if (drawingContent && mContentSnapshot != null) {
+            result = false;
+            drawContentSnapshot(canvas, child, clipLeft, clipRight, renderState);
+        } else if (mLeftDragger.getMotionMode() == MOTION_MODE_TRANSLATION) {
+            // The drawer carries its own clip bounds, see updateDrawerClipBounds.
+            result = super.drawChild(canvas, child, drawingTime);
+        } else {
+            final int restoreCount = canvas.save();
+            canvas.clipRect(clipLeft, 0, clipRight, renderState.getClipBottom());
+            result = super.drawChild(canvas, child, drawingTime);
+            canvas.restoreToCount(restoreCount);
+        }
+
+        if (drawingContent && renderState.isScrimVisible() && mScrimRenderer.drawsInParent()) {
+            final Rect bounds = getScrimBounds(child, clipLeft, clipRight, renderState);
+            mScrimRenderer.draw(canvas, child, bounds.left, bounds.top, bounds.right, bounds.bottom);
         }
 
         return result;
     }
 
+    /**
+     * @return the area of the layout the scrim covers, the content as it is drawn
+     */
+    private Rect getScrimBounds(View contentView, int clipLeft, int clipRight,
+                                DrawerRenderState renderState) {
+        final Rect bounds = mScrimBounds;
+        bounds.set(clipLeft, 0, clipRight, renderState.getClipBottom());
+        if (mContentTransition == CONTENT_TRANSITION_SCALE) {
+            applyContentScale(contentView, bounds);
+        }
+        return bounds;
+    }
+
+    /**
+     * Shrink bounds that start at the left edge of the content to the content as the scale
+     * transition draws it, scaled around the middle of its left edge.
+     */
+    private static void applyContentScale(View contentView, Rect bounds) {
+        final int width = (int) (contentView.getWidth() * ViewCompat.getScaleX(contentView));
+        final int inset = (int) (contentView.getHeight()
+                * (1f - ViewCompat.getScaleY(contentView)) / 2);
+        bounds.right = Math.min(bounds.right, bounds.left + width);
+        bounds.top = contentView.getTop() + inset;
+        bounds.bottom = contentView.getBottom() - inset;
+    }
+
+    private void drawContentSnapshot(Canvas canvas, View contentView, int clipLeft, int clipRight,
+                                     DrawerRenderState renderState) {
+        final int restoreCount = canvas.save();
+        canvas.clipRect(clipLeft, 0, clipRight, renderState.getClipBottom());
+        canvas.translate(contentView.getLeft(), contentView.getTop());
+        // Translation and scale of the content, as they would apply to the live content.
+        canvas.concat(contentView.getMatrix());
+        canvas.drawBitmap(mContentSnapshot, 0, 0, null);
+        canvas.restoreToCount(restoreCount);
+
+        if (renderState.isScrimVisible() && !mScrimRenderer.drawsInParent()) {
+            // The renderer applies the scrim to the live content, which is not drawn.
+            if (mSnapshotScrimRenderer == null) {
+                mSnapshotScrimRenderer = new RectScrimRenderer();
+            }
+            mSnapshotScrimRenderer.onScrimChanged(contentView, renderState.getScrimColor());
+            final Rect bounds = getScrimBounds(contentView, clipLeft, clipRight, renderState);
+            mSnapshotScrimRenderer.draw(canvas, contentView, bounds.left, bounds.top,
+                    bounds.right, bounds.bottom);
+        }
+    }
+
     boolean isContentView(View child) {
         return child instanceof IContentView;
     }
@@ -587,7 +1571,21 @@ public class LeftDrawerLayout extends ViewGroup {
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if (mLockMode != LOCK_MODE_UNLOCKED) {
+            // A locked drawer does not move, the drag helper needs to see nothing.
+            return false;
+        }
         final int action = MotionEventCompat.getActionMasked(ev);
+        if (action == MotionEvent.ACTION_DOWN) {
+            mGestureOutsideEdge = isOutsideEdgeCapture(ev.getX());
+        }
+        if (mGestureOutsideEdge) {
+            return false;
+        }
+        if (isNestedScrollingHorizontally() && action != MotionEvent.ACTION_DOWN) {
+            // The scrolling child hands the drawer its share through the nested scroll calls.
+            return false;
+        }
         final boolean interceptForDrag = mLeftDragger.shouldInterceptTouchEvent(ev);
 
         boolean interceptForTap = false;
@@ -598,7 +1596,7 @@ public class LeftDrawerLayout extends ViewGroup {
                 final float y = ev.getY();
                 mInitialMotionX = x;
                 mInitialMotionY = y;
-                if (mScrimOpacity > 0) {
+                if (mRenderState.getScrimOpacity() > 0) {
                     final View child = findTopChildUnder((int) x, (int) y);
                     if (child != null && isContentView(child)) {
                         //interceptForTap = true;
@@ -627,6 +1625,15 @@ public class LeftDrawerLayout extends ViewGroup {
 
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
+        if (mLockMode != LOCK_MODE_UNLOCKED) {
+            return false;
+        }
+        if (MotionEventCompat.getActionMasked(ev) == MotionEvent.ACTION_DOWN) {
+            mGestureOutsideEdge = isOutsideEdgeCapture(ev.getX());
+        }
+        if (mGestureOutsideEdge) {
+            return false;
+        }
         mLeftDragger.processTouchEvent(ev);
 
         final int action = ev.getAction();
@@ -666,11 +1673,84 @@ public class LeftDrawerLayout extends ViewGroup {
             super.requestDisallowInterceptTouchEvent(disallowIntercept);
         }
         mDisallowInterceptRequested = disallowIntercept;
-        if (disallowIntercept) {
+        if (disallowIntercept && !mNestedScrollInProgress && mLockMode != LOCK_MODE_LOCKED_OPEN) {
             closeDrawer(true);
         }
     }
 
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        // Vertical scrolls are accepted too, only so that their requestDisallowInterceptTouchEvent
+        // does not close the drawer. Only horizontal ones can move it.
+        return mLockMode == LOCK_MODE_UNLOCKED && hasDrawerChildren() && child == findContent();
+    }
+
+    private boolean isNestedScrollingHorizontally() {
+        return mNestedScrollInProgress
+                && (getNestedScrollAxes() & ViewCompat.SCROLL_AXIS_HORIZONTAL) != 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int axes) {
+        mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
+        mNestedScrollInProgress = true;
+        mNestedFlingVelocityX = 0;
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        // While the drawer is open it moves before the child scrolls.
+        if (dx == 0 || !isNestedScrollingHorizontally() || !mLeftDragger.isNestedDragging()
+                && mLeftDragger.getViewLeft(findContent()) <= 0) {
+            return;
+        }
+        if (mLeftDragger.startNestedDrag()) {
+            // Scrolling by dx moves the content by -dx.
+            consumed[0] = -mLeftDragger.nestedDragBy(-dx);
+        }
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                               int dyUnconsumed) {
+        // The child reached its start and the finger keeps moving right: open the drawer.
+        if (dxUnconsumed < 0 && isNestedScrollingHorizontally()
+                && mLeftDragger.startNestedDrag()) {
+            mLeftDragger.nestedDragBy(-dxUnconsumed);
+        }
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (mLeftDragger.isNestedDragging()) {
+            // The drawer takes the fling, it settles with it once the nested scroll stops.
+            mNestedFlingVelocityX = velocityX;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY,
+                                 boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public void onStopNestedScroll(View target) {
+        mNestedScrollingParentHelper.onStopNestedScroll(target);
+        mNestedScrollInProgress = false;
+        if (mLeftDragger.isNestedDragging()) {
+            mLeftDragger.stopNestedDrag(-mNestedFlingVelocityX);
+            invalidate();
+        }
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return mNestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
     /**
      * Open the specified drawer view by animating it into view.
      *
@@ -692,6 +1772,7 @@ public class LeftDrawerLayout extends ViewGroup {
         }
 
         final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        wakeDrawer();
         if (mFirstLayout) {
             lp.onScreen = 1.f;
             lp.openState = LayoutParams.FLAG_IS_OPENED;
@@ -864,25 +1945,63 @@ public class LeftDrawerLayout extends ViewGroup {
     }
 
     public View findDrawer() {
-        final int childCount = getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            final View child = getChildAt(i);
-            if (isDrawerView(child)) {
-                return child;
-            }
-        }
-        return null;
+        return mDrawerChild;
     }
 
     public View findContent() {
+        return mContentChild;
+    }
+
+    /**
+     * @return true if both the drawer and the content child are present.
+     */
+    boolean hasDrawerChildren() {
+        return mDrawerChild != null && mContentChild != null;
+    }
+
+    private void indexChildRole(View child) {
+        if (mDrawerChild == null && isDrawerView(child)) {
+            mDrawerChild = child;
+        } else if (mContentChild == null && isContentView(child)) {
+            mContentChild = child;
+        }
+    }
+
+    private void rebuildChildRoleIndex(View removedChild) {
+        final View previousContent = mContentChild;
+        mDrawerChild = null;
+        mContentChild = null;
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
-            if (isContentView(child)) {
-                return child;
+            if (child != removedChild) {
+                indexChildRole(child);
             }
         }
-        return null;
+        if (mContentChild != previousContent) {
+            if (previousContent != null) {
+                mScrimRenderer.onDetach(previousContent);
+                mScaleTransition.detach();
+            }
+            attachContentChild();
+        }
+    }
+
+    private void attachContentChild() {
+        attachScrimRenderer();
+        if (mContentChild != null && mContentTransition == CONTENT_TRANSITION_SCALE) {
+            mScaleTransition.attach(mContentChild);
+            updateContentTransition();
+        }
+    }
+
+    private void attachScrimRenderer() {
+        if (mContentChild != null) {
+            mRenderState.updateScrim();
+            mScrimRenderer.onAttach(mContentChild);
+            mScrimRenderer.onDrawerProgress(mContentChild, getScrimProgress());
+            mScrimRenderer.onScrimChanged(mContentChild, mRenderState.getScrimColor());
+        }
     }
 
     void cancelChildViewTouch() {
@@ -902,7 +2021,8 @@ public class LeftDrawerLayout extends ViewGroup {
 
     @Override
     public boolean onKeyDown(int keyCode, KeyEvent event) {
-        if (keyCode == KeyEvent.KEYCODE_BACK && hasVisibleDrawer()) {
+        if (keyCode == KeyEvent.KEYCODE_BACK && hasVisibleDrawer()
+                && mLockMode != LOCK_MODE_LOCKED_OPEN) {
             KeyEventCompat.startTracking(event);
             return true;
         }
@@ -911,7 +2031,7 @@ public class LeftDrawerLayout extends ViewGroup {
 
     @Override
     public boolean onKeyUp(int keyCode, KeyEvent event) {
-        if (keyCode == KeyEvent.KEYCODE_BACK) {
+        if (keyCode == KeyEvent.KEYCODE_BACK && mLockMode != LOCK_MODE_LOCKED_OPEN) {
             final View visibleDrawer = findVisibleDrawer();
             if (visibleDrawer != null) {
                 closeDrawer();
@@ -935,12 +2055,14 @@ public class LeftDrawerLayout extends ViewGroup {
         if (toOpen != null) {
             openDrawer(toOpen);
         }
+        setDrawerLockMode(ss.lockModeLeft);
     }
 
     @Override
     protected Parcelable onSaveInstanceState() {
         final Parcelable superState = super.onSaveInstanceState();
         final SavedState ss = new SavedState(superState);
+        ss.lockModeLeft = mLockMode;
 
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
@@ -991,6 +2113,26 @@ public class LeftDrawerLayout extends ViewGroup {
         }
     }
 
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        ((LayoutParams) child.getLayoutParams()).clearMeasuredFor();
+        indexChildRole(child);
+        if (child == mContentChild) {
+            attachContentChild();
+        }
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        if (child == mDrawerChild || child == mContentChild) {
+            // onViewRemoved is called before the child leaves the children array,
+            // so skip it explicitly while looking for a replacement.
+            rebuildChildRoleIndex(child);
+        }
+    }
+
     private static boolean includeChildForAccessibility(View child) {
         // If the child is not important for accessibility we make
         // sure this hides the entire subtree rooted at it as the
@@ -1068,15 +2210,26 @@ public class LeftDrawerLayout extends ViewGroup {
             updateDrawerState(state, drawerView);
         }
 
+        @Override
+        public void onViewCaptured(View capturedChild, int activePointerId) {
+            wakeDrawer();
+            captureContentSnapshot();
+        }
+
         @Override
         public void onViewPositionChanged(View contentView, int left, int top, int dx, int dy) {
             View drawerView = findDrawer();
             int maxDrag = drawerView.getWidth();
-            float offset = 1.0f * contentView.getLeft() / CONTENT_OFFSET_FACTOR / maxDrag;
+            float offset = 1.0f * left / CONTENT_OFFSET_FACTOR / maxDrag;
 
             setDrawerViewOffset(drawerView, DRAWER_ON_SCREEN + offset);
 
-            invalidate();
+            // Renderers that apply the scrim to the content itself need no parent redraw when
+            // the children move through RenderNode properties.
+            if (getMotionMode() == MOTION_MODE_OFFSET || mScrimRenderer.drawsInParent()
+                    || mContentSnapshot != null || mEdgeShadowEnabled) {
+                invalidate();
+            }
         }
 
         @Override
@@ -1110,7 +2263,13 @@ public class LeftDrawerLayout extends ViewGroup {
 
         @Override
         public boolean tryCaptureView(View contentView, int pointerId) {
-            return isContentView(contentView);
+            if (!isContentView(contentView)) {
+                return false;
+            }
+            // Pointers that joined later must come from the edge too, and a nested drag has
+            // none, so it can only close the drawer.
+            return !mEdgeCaptureOnly || mDragger.getViewLeft(contentView) > 0
+                    || mDragger.isEdgeTouched(DrawerDragHelper.EDGE_LEFT, pointerId);
         }
 
         @Override
@@ -1144,6 +2303,17 @@ public class LeftDrawerLayout extends ViewGroup {
         private float onScreen = DRAWER_ON_SCREEN;
         private int openState;
 
+        // Hardware layer promotion while the drawer moves, see setLayerPolicy.
+        private boolean promotedToLayer;
+        private int layerTypeBeforePromotion;
+        private long lastInvalidateTime;
+        private int invalidateStreak;
+
+        // The parent MeasureSpecs the drawer was last measured against, checked by wakeDrawer.
+        private boolean measuredForValid;
+        private int measuredForWidthSpec;
+        private int measuredForHeightSpec;
+
         public LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
 
@@ -1173,6 +2343,32 @@ public class LeftDrawerLayout extends ViewGroup {
         public LayoutParams(ViewGroup.MarginLayoutParams source) {
             super(source);
         }
+
+        boolean isMeasuredFor(int widthMeasureSpec, int heightMeasureSpec) {
+            return measuredForValid && measuredForWidthSpec == widthMeasureSpec
+                    && measuredForHeightSpec == heightMeasureSpec;
+        }
+
+        void setMeasuredFor(int widthMeasureSpec, int heightMeasureSpec) {
+            measuredForValid = true;
+            measuredForWidthSpec = widthMeasureSpec;
+            measuredForHeightSpec = heightMeasureSpec;
+        }
+
+        void clearMeasuredFor() {
+            measuredForValid = false;
+        }
+
+        void noteInvalidated(long now) {
+            invalidateStreak = now - lastInvalidateTime < RAPID_INVALIDATION_GAP
+                    ? invalidateStreak + 1 : 1;
+            lastInvalidateTime = now;
+        }
+
+        boolean isInvalidatingRapidly(long now) {
+            return invalidateStreak >= RAPID_INVALIDATION_COUNT
+                    && now - lastInvalidateTime < RAPID_INVALIDATION_GAP;
+        }
     }
 
     class AccessibilityDelegate extends AccessibilityDelegateCompat {
@@ -0,0 +1,66 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+/**
+ * {@link TouchPredictor} that fits a line to the last few samples and follows its slope from
+ * the newest sample. Reacts quickly, but passes the jitter of the touch panel on.
+ */
+public class LinearTouchPredictor extends TouchPredictor {
+
+    /** Samples kept for the fit. */
+    static final int HISTORY_SIZE = 4;
+
+    // Only samples this recent take part in the fit.
+    private static final long HORIZON = 50; // ms
+
+    private final long[] mTimes = new long[HISTORY_SIZE];
+    private final float[] mX = new float[HISTORY_SIZE];
+    private final float[] mY = new float[HISTORY_SIZE];
+    private int mNewest;
+    private int mCount;
+
+    @Override
+    protected void onAddSample(long time, float x, float y) {
+        if (mCount == 0 || mTimes[mNewest] != time) {
+            mNewest = (mNewest + 1) % HISTORY_SIZE;
+            mCount = Math.min(mCount + 1, HISTORY_SIZE);
+        }
+        mTimes[mNewest] = time;
+        mX[mNewest] = x;
+        mY[mNewest] = y;
+    }
+
+    @Override
+    protected void onPredict(float lookahead) {
+        final long newestTime = mTimes[mNewest];
+        // Least squares slope with t relative to the newest sample.
+        double s1 = 0, s2 = 0, x0 = 0, x1 = 0, y0 = 0, y1 = 0;
+        int n = 0;
+        for (int i = 0; i < mCount; i++) {
+            final int index = (mNewest - i + HISTORY_SIZE) % HISTORY_SIZE;
+            final double t = mTimes[index] - newestTime;
+            if (-t > HORIZON) {
+                break;
+            }
+            s1 += t;
+            s2 += t * t;
+            x0 += mX[index];
+            x1 += t * mX[index];
+            y0 += mY[index];
+            y1 += t * mY[index];
+            n++;
+        }
+        final double det = n * s2 - s1 * s1;
+        if (n < 2 || det == 0) {
+            return;
+        }
+        final double xSlope = (n * x1 - s1 * x0) / det;
+        final double ySlope = (n * y1 - s1 * y0) / det;
+        setPrediction((float) (mX[mNewest] + xSlope * lookahead),
+                (float) (mY[mNewest] + ySlope * lookahead));
+    }
+
+    @Override
+    protected void onReset() {
+        mCount = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Color;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Draws the scrim with a dedicated view in the content's overlay. The view is filled with the
+ * opaque scrim color once and the scrim only changes its alpha, which is a RenderNode property.
+ * The overlay moves with the content, so a drag does not redraw anything.
+ *
+ * The content has to be a {@link ViewGroup}, otherwise no scrim is drawn.
+ */
+public class OverlayScrimRenderer extends ScrimRenderer {
+
+    private ScrimView mScrimView;
+    private int mScrimRgb = -1;
+
+    // Overlay views are not laid out by their host.
+    private final View.OnLayoutChangeListener mContentLayoutListener =
+            new View.OnLayoutChangeListener() {
+                @Override
+                public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                           int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                    if (mScrimView != null) {
+                        mScrimView.layout(0, 0, right - left, bottom - top);
+                    }
+                }
+            };
+
+    @Override
+    public void onAttach(View contentView) {
+        if (!(contentView instanceof ViewGroup)) {
+            return;
+        }
+        if (mScrimView == null) {
+            mScrimView = new ScrimView(contentView);
+            mScrimView.setAlpha(0f);
+            mScrimView.setVisibility(View.INVISIBLE);
+        }
+        ((ViewGroup) contentView).getOverlay().add(mScrimView);
+        mScrimView.layout(0, 0, contentView.getWidth(), contentView.getHeight());
+        contentView.addOnLayoutChangeListener(mContentLayoutListener);
+    }
+
+    @Override
+    public void onDetach(View contentView) {
+        if (mScrimView != null && contentView instanceof ViewGroup) {
+            contentView.removeOnLayoutChangeListener(mContentLayoutListener);
+            ((ViewGroup) contentView).getOverlay().remove(mScrimView);
+        }
+    }
+
+    @Override
+    public void onScrimChanged(View contentView, int scrimColor) {
+        final ScrimView scrimView = mScrimView;
+        if (scrimView == null) {
+            return;
+        }
+
+        final int alpha = Color.alpha(scrimColor);
+        if (alpha == 0) {
+            scrimView.setVisibility(View.INVISIBLE);
+            return;
+        }
+
+        final int rgb = scrimColor & 0xffffff;
+        if (rgb != mScrimRgb) {
+            mScrimRgb = rgb;
+            scrimView.setBackgroundColor(0xff000000 | rgb);
+        }
+        scrimView.setAlpha(alpha / 255f);
+        scrimView.setVisibility(View.VISIBLE);
+    }
+
+    private static class ScrimView extends View {
+
+        ScrimView(View contentView) {
+            super(contentView.getContext());
+        }
+
+        @Override
+        public boolean hasOverlappingRendering() {
+            // A single opaque fill, alpha can be applied directly without an offscreen buffer.
+            return false;
+        }
+    }
+}
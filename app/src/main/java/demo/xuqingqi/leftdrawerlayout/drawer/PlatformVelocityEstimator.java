@@ -0,0 +1,39 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.support.v4.view.VelocityTrackerCompat;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+
+/**
+ * {@link VelocityEstimator} backed by the platform {@link VelocityTracker}. The tracker is
+ * obtained once and cleared between gestures instead of being recycled.
+ */
+public class PlatformVelocityEstimator extends VelocityEstimator {
+
+    private final VelocityTracker mVelocityTracker = VelocityTracker.obtain();
+
+    @Override
+    public void addMovement(MotionEvent ev) {
+        mVelocityTracker.addMovement(ev);
+    }
+
+    @Override
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        mVelocityTracker.computeCurrentVelocity(units, maxVelocity);
+    }
+
+    @Override
+    public float getXVelocity(int pointerId) {
+        return VelocityTrackerCompat.getXVelocity(mVelocityTracker, pointerId);
+    }
+
+    @Override
+    public float getYVelocity(int pointerId) {
+        return VelocityTrackerCompat.getYVelocity(mVelocityTracker, pointerId);
+    }
+
+    @Override
+    public void clear() {
+        mVelocityTracker.clear();
+    }
+}
@@ -0,0 +1,29 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+
+/**
+ * Draws the scrim as a blended rectangle over the content area in the layout's canvas.
+ * This is the default {@link ScrimRenderer}.
+ */
+public class RectScrimRenderer extends ScrimRenderer {
+
+    private final Paint mScrimPaint = new Paint();
+
+    @Override
+    public void onScrimChanged(View contentView, int scrimColor) {
+        mScrimPaint.setColor(scrimColor);
+    }
+
+    @Override
+    public void draw(Canvas canvas, View contentView, int left, int top, int right, int bottom) {
+        canvas.drawRect(left, top, right, bottom, mScrimPaint);
+    }
+
+    @Override
+    public boolean drawsInParent() {
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.graphics.Canvas;
+import android.support.annotation.ColorInt;
+import android.view.View;
+
+/**
+ * Draws the scrim over the content of a {@link LeftDrawerLayout}.
+ *
+ * A renderer either draws into the layout's canvas right after the content, see
+ * {@link #drawsInParent()}, or applies the scrim to the content view itself through
+ * properties that do not need the layout to redraw.
+ */
+public abstract class ScrimRenderer {
+
+    /**
+     * The renderer starts to be used for the given content view.
+     */
+    public void onAttach(View contentView) {}
+
+    /**
+     * The renderer stops being used for the given content view and must undo its changes.
+     */
+    public void onDetach(View contentView) {}
+
+    /**
+     * The scrim changed, either because the drawer moved or the scrim color was set.
+     *
+     * @param scrimColor the color to draw over the content, its alpha already reflects how far
+     *                   the drawer is open. Fully transparent while the drawer is closed.
+     */
+    public abstract void onScrimChanged(View contentView, @ColorInt int scrimColor);
+
+    /**
+     * How far the drawer is open changed, from 0 when closed to 1 when open. Called right
+     * before {@link #onScrimChanged(View, int)}.
+     */
+    public void onDrawerProgress(View contentView, float progress) {}
+
+    /**
+     * The content was invalidated since it was last drawn. Renderers that keep a copy of the
+     * content can drop it. Only reported from API 21 on.
+     */
+    public void onContentInvalidated(View contentView) {}
+
+    /**
+     * Draw the scrim into the layout's canvas, right after the content. Only called if
+     * {@link #drawsInParent()} and the scrim is visible. Coordinates are the layout's.
+     */
+    public void draw(Canvas canvas, View contentView, int left, int top, int right, int bottom) {}
+
+    /**
+     * @return true if the layout has to redraw whenever the scrim changes
+     */
+    public boolean drawsInParent() {
+        return false;
+    }
+
+    /**
+     * @return true if the renderer sets the content's layer type, so that nothing else may
+     * change it while the renderer is attached
+     */
+    public boolean usesContentLayer() {
+        return false;
+    }
+}
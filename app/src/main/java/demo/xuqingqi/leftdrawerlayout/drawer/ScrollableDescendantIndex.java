@@ -0,0 +1,104 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+
+/**
+ * Index of the horizontally scrollable descendants of a view and their bounds in its
+ * coordinates, so finding the scrollable view under a touch takes one pass over a short list
+ * instead of a walk of the view tree.
+ *
+ * The index is rebuilt lazily, on the first lookup after a layout or scroll anywhere in the
+ * window. Child transformations are ignored, like in {@link DrawerDragHelper#canScroll}.
+ */
+final class ScrollableDescendantIndex implements ViewTreeObserver.OnGlobalLayoutListener,
+        ViewTreeObserver.OnScrollChangedListener {
+
+    private final ArrayList<View> mViews = new ArrayList<>();
+    // left, top, right, bottom of each indexed view
+    private int[] mBounds = new int[4 * 8];
+
+    private View mRoot;
+    private boolean mValid;
+
+    @Override
+    public void onGlobalLayout() {
+        mValid = false;
+    }
+
+    @Override
+    public void onScrollChanged() {
+        mValid = false;
+    }
+
+    void clear() {
+        mViews.clear();
+        mRoot = null;
+        mValid = false;
+    }
+
+    /**
+     * @return the topmost horizontally scrollable view under the point, which is in the
+     * coordinates of root, or null if there is none
+     */
+    View find(View root, int x, int y) {
+        if (!mValid || mRoot != root) {
+            rebuild(root);
+        }
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            final int b = 4 * i;
+            if (x >= mBounds[b] && x < mBounds[b + 2] && y >= mBounds[b + 1] && y < mBounds[b + 3]) {
+                return mViews.get(i);
+            }
+        }
+        return null;
+    }
+
+    private void rebuild(View root) {
+        mViews.clear();
+        mRoot = root;
+        index(root, 0, 0);
+        mValid = true;
+    }
+
+    /**
+     * Add the view and its descendants in drawing order, so later entries are on top of
+     * earlier ones.
+     */
+    private void index(View view, int left, int top) {
+        if (view.getVisibility() != View.VISIBLE) {
+            return;
+        }
+        if (ViewCompat.canScrollHorizontally(view, 1) || ViewCompat.canScrollHorizontally(view, -1)) {
+            add(view, left, top);
+        }
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            final int childLeft = left - group.getScrollX();
+            final int childTop = top - group.getScrollY();
+            final int count = group.getChildCount();
+            for (int i = 0; i < count; i++) {
+                final View child = group.getChildAt(i);
+                index(child, childLeft + child.getLeft(), childTop + child.getTop());
+            }
+        }
+    }
+
+    private void add(View view, int left, int top) {
+        final int b = 4 * mViews.size();
+        if (b + 4 > mBounds.length) {
+            final int[] bounds = new int[mBounds.length * 2];
+            System.arraycopy(mBounds, 0, bounds, 0, mBounds.length);
+            mBounds = bounds;
+        }
+        mBounds[b] = left;
+        mBounds[b + 1] = top;
+        mBounds[b + 2] = left + view.getWidth();
+        mBounds[b + 3] = top + view.getHeight();
+        mViews.add(view);
+    }
+}
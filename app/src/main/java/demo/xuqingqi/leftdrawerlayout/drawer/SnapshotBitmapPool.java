@@ -0,0 +1,87 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LongSparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * Pool of the bitmaps used for content snapshots, keyed by size. A gesture usually snapshots
+ * the same content size as the previous one, so its bitmap is reused instead of reallocated.
+ *
+ * Register the pool as {@link ComponentCallbacks2} to drop the pooled bitmaps on memory
+ * pressure. Bitmaps that are acquired at that moment are not affected.
+ */
+final class SnapshotBitmapPool implements ComponentCallbacks2 {
+
+    /** Upper bound of the bitmaps kept per size. */
+    private static final int MAX_PER_SIZE = 1;
+
+    private final LongSparseArray<ArrayList<Bitmap>> mPool = new LongSparseArray<>();
+
+    private static long key(int width, int height) {
+        return (long) width << 32 | (height & 0xffffffffL);
+    }
+
+    /**
+     * @return a bitmap of the given size, its content is undefined
+     */
+    Bitmap acquire(int width, int height) {
+        final ArrayList<Bitmap> bitmaps = mPool.get(key(width, height));
+        if (bitmaps != null) {
+            for (int i = bitmaps.size() - 1; i >= 0; i--) {
+                final Bitmap bitmap = bitmaps.remove(i);
+                if (!bitmap.isRecycled()) {
+                    return bitmap;
+                }
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    void release(Bitmap bitmap) {
+        if (bitmap.isRecycled()) {
+            return;
+        }
+        final long key = key(bitmap.getWidth(), bitmap.getHeight());
+        ArrayList<Bitmap> bitmaps = mPool.get(key);
+        if (bitmaps == null) {
+            bitmaps = new ArrayList<>(MAX_PER_SIZE);
+            mPool.put(key, bitmaps);
+        }
+        if (bitmaps.size() < MAX_PER_SIZE) {
+            bitmaps.add(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    void clear() {
+        for (int i = 0, size = mPool.size(); i < size; i++) {
+            final ArrayList<Bitmap> bitmaps = mPool.valueAt(i);
+            for (int j = 0, count = bitmaps.size(); j < count; j++) {
+                bitmaps.get(j).recycle();
+            }
+        }
+        mPool.clear();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // Also covers TRIM_MEMORY_UI_HIDDEN and the background levels.
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+}
@@ -0,0 +1,126 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.view.MotionEvent;
+
+/**
+ * Predicts where a pointer will be when the next frame is presented, so a drag can draw the
+ * content under the finger instead of a frame or two behind it.
+ *
+ * The prediction is extrapolated from the newest sample. It looks ahead at most
+ * {@link #MAX_LOOKAHEAD} ms, scaled by the aggressiveness. Only
+ * {@link #addMovement(MotionEvent, int)} depends on Android, the prediction itself is fed
+ * through {@link #addSample(long, float, float)} and is deterministic.
+ */
+public abstract class TouchPredictor {
+
+    /** Predictions never reach further ahead of the newest sample, in milliseconds. */
+    public static final float MAX_LOOKAHEAD = 32;
+
+    private float mAggressiveness = 1f;
+
+    private boolean mHasSamples;
+    private long mNewestTime;
+    private float mNewestX;
+    private float mNewestY;
+
+    private float mPredictedX;
+    private float mPredictedY;
+
+    /**
+     * Set how far ahead to predict: 0 turns prediction off, 1 (default) predicts the full time
+     * until presentation and larger values overshoot it.
+     */
+    public void setAggressiveness(float aggressiveness) {
+        if (aggressiveness < 0) {
+            throw new IllegalArgumentException("Aggressiveness may not be negative");
+        }
+        mAggressiveness = aggressiveness;
+    }
+
+    public float getAggressiveness() {
+        return mAggressiveness;
+    }
+
+    /**
+     * Add the positions of a pointer in a move event, the batched historical ones included.
+     */
+    public void addMovement(MotionEvent ev, int pointerId) {
+        final int index = ev.findPointerIndex(pointerId);
+        if (index < 0) {
+            return;
+        }
+        final int historySize = ev.getHistorySize();
+        for (int h = 0; h < historySize; h++) {
+            addSample(ev.getHistoricalEventTime(h), ev.getHistoricalX(index, h),
+                    ev.getHistoricalY(index, h));
+        }
+        addSample(ev.getEventTime(), ev.getX(index), ev.getY(index));
+    }
+
+    /**
+     * Add a position of the pointer. Samples must be added in time order.
+     */
+    public final void addSample(long time, float x, float y) {
+        if (mHasSamples && time < mNewestTime) {
+            return;
+        }
+        onAddSample(time, x, y);
+        mHasSamples = true;
+        mNewestTime = time;
+        mNewestX = x;
+        mNewestY = y;
+    }
+
+    /**
+     * Predict the position at the given time, in the time base of the samples. Read it with
+     * {@link #getPredictedX()} and {@link #getPredictedY()}.
+     */
+    public final void predict(long presentationTime) {
+        if (!mHasSamples) {
+            mPredictedX = 0;
+            mPredictedY = 0;
+            return;
+        }
+        mPredictedX = mNewestX;
+        mPredictedY = mNewestY;
+        final float lookahead = Math.min(MAX_LOOKAHEAD,
+                Math.max(0, presentationTime - mNewestTime) * mAggressiveness);
+        if (lookahead > 0) {
+            onPredict(lookahead);
+        }
+    }
+
+    public float getPredictedX() {
+        return mPredictedX;
+    }
+
+    public float getPredictedY() {
+        return mPredictedY;
+    }
+
+    /**
+     * Forget all samples, for a new gesture.
+     */
+    public final void reset() {
+        mHasSamples = false;
+        mPredictedX = 0;
+        mPredictedY = 0;
+        onReset();
+    }
+
+    protected abstract void onAddSample(long time, float x, float y);
+
+    /**
+     * Extrapolate the samples {@code lookahead} milliseconds past the newest one and report the
+     * result with {@link #setPrediction(float, float)}. The prediction defaults to the newest
+     * sample.
+     */
+    protected abstract void onPredict(float lookahead);
+
+    protected abstract void onReset();
+
+    protected final void setPrediction(float x, float y) {
+        mPredictedX = x;
+        mPredictedY = y;
+    }
+}
@@ -0,0 +1,38 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import android.view.MotionEvent;
+
+/**
+ * Estimates pointer velocities from a stream of touch events for {@link DrawerDragHelper},
+ * with the same contract as {@link android.view.VelocityTracker}.
+ */
+public abstract class VelocityEstimator {
+
+    /**
+     * Add the pointer positions of the event. ACTION_DOWN starts a new gesture.
+     */
+    public abstract void addMovement(MotionEvent ev);
+
+    /**
+     * Compute the velocities of all pointers from the movements added so far.
+     *
+     * @param units       1 for pixels per millisecond, 1000 for pixels per second
+     * @param maxVelocity the velocities are clamped to [-maxVelocity, maxVelocity]
+     */
+    public abstract void computeCurrentVelocity(int units, float maxVelocity);
+
+    /**
+     * @return the last computed horizontal velocity of the pointer, 0 for an unknown pointer
+     */
+    public abstract float getXVelocity(int pointerId);
+
+    /**
+     * @return the last computed vertical velocity of the pointer, 0 for an unknown pointer
+     */
+    public abstract float getYVelocity(int pointerId);
+
+    /**
+     * Forget all movements.
+     */
+    public abstract void clear();
+}
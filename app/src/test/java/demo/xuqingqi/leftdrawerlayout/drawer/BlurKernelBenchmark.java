@@ -0,0 +1,121 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the blur kernel and prints its cost across capture sizes and thread counts.
+ */
+public class BlurKernelBenchmark {
+
+    /** Downsampled captures of common screens, and a full HD one for reference. */
+    private static final int[][] SIZES = {
+            {90, 160}, {135, 240}, {180, 320}, {270, 480}, {540, 960}, {1080, 1920},
+    };
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int RADIUS = 4;
+    private static final int PASSES = 3;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    private static ExecutorService sExecutor;
+
+    @BeforeClass
+    public static void setUp() {
+        sExecutor = Executors.newFixedThreadPool(THREADS[THREADS.length - 1] - 1);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        sExecutor.shutdownNow();
+    }
+
+    @Test
+    public void uniformImageIsUnchanged() throws Exception {
+        final int[] pixels = new int[64 * 48];
+        Arrays.fill(pixels, 0x80336699);
+        final int[] expected = pixels.clone();
+
+        BlurKernel.blur(pixels, new int[pixels.length], 64, 48, RADIUS, PASSES, null, 1);
+
+        assertArrayEquals(expected, pixels);
+    }
+
+    @Test
+    public void spreadsSinglePixel() throws Exception {
+        final int width = 31;
+        final int[] pixels = new int[width * width];
+        pixels[15 * width + 15] = 0xffffffff;
+
+        BlurKernel.blur(pixels, new int[pixels.length], width, width, 1, 1, null, 1);
+
+        // A 3x3 box: each channel 255 / 3 / 3, truncated per pass.
+        assertEquals(0x1c1c1c1c, pixels[14 * width + 14]);
+        assertEquals(0x1c1c1c1c, pixels[16 * width + 16]);
+        assertEquals(0, pixels[13 * width + 15]);
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws Exception {
+        final int width = 270;
+        final int height = 480;
+        final int[] sequential = randomPixels(width, height);
+        final int[] parallel = sequential.clone();
+
+        BlurKernel.blur(sequential, new int[sequential.length], width, height, RADIUS, PASSES,
+                null, 1);
+        BlurKernel.blur(parallel, new int[parallel.length], width, height, RADIUS, PASSES,
+                sExecutor, 4);
+
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Ignore("Benchmark, run it by hand")
+    @Test
+    public void benchmark() throws Exception {
+        for (int[] size : SIZES) {
+            final int width = size[0];
+            final int height = size[1];
+            final int[] source = randomPixels(width, height);
+            final int[] pixels = new int[source.length];
+            final int[] scratch = new int[source.length];
+
+            final StringBuilder line = new StringBuilder();
+            line.append(width).append('x').append(height).append(':');
+            for (int threads : THREADS) {
+                for (int i = 0; i < WARMUP; i++) {
+                    System.arraycopy(source, 0, pixels, 0, source.length);
+                    BlurKernel.blur(pixels, scratch, width, height, RADIUS, PASSES, sExecutor, threads);
+                }
+                long total = 0;
+                for (int i = 0; i < RUNS; i++) {
+                    System.arraycopy(source, 0, pixels, 0, source.length);
+                    final long start = System.nanoTime();
+                    BlurKernel.blur(pixels, scratch, width, height, RADIUS, PASSES, sExecutor, threads);
+                    total += System.nanoTime() - start;
+                }
+                line.append(String.format(" %d threads %.3f ms", threads, total / 1e6 / RUNS));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static int[] randomPixels(int width, int height) {
+        final Random random = new Random(width * 31 + height);
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+}
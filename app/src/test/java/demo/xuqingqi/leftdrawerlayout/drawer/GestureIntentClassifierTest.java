@@ -0,0 +1,72 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static demo.xuqingqi.leftdrawerlayout.drawer.GestureIntentClassifier.INTENT_HORIZONTAL_CLOSE;
+import static demo.xuqingqi.leftdrawerlayout.drawer.GestureIntentClassifier.INTENT_HORIZONTAL_OPEN;
+import static demo.xuqingqi.leftdrawerlayout.drawer.GestureIntentClassifier.INTENT_TAP;
+import static demo.xuqingqi.leftdrawerlayout.drawer.GestureIntentClassifier.INTENT_UNKNOWN;
+import static demo.xuqingqi.leftdrawerlayout.drawer.GestureIntentClassifier.INTENT_VERTICAL;
+import static org.junit.Assert.assertEquals;
+
+public class GestureIntentClassifierTest {
+
+    private static final float INTENT_SLOP = 8;
+    private static final float TOUCH_SLOP = 16;
+    private static final float MIN_INTENT_VELOCITY = 0.5f;
+    private static final long TAP_TIMEOUT = 100;
+
+    private GestureIntentClassifier mClassifier;
+
+    @Before
+    public void setUp() {
+        mClassifier = new GestureIntentClassifier(INTENT_SLOP, TOUCH_SLOP, MIN_INTENT_VELOCITY,
+                TAP_TIMEOUT);
+        mClassifier.start(1000, 100, 100);
+    }
+
+    @Test
+    public void fastHorizontalSwipeIsClassifiedBeforeTheTouchSlop() throws Exception {
+        assertEquals(INTENT_TAP, mClassifier.addSample(1008, 105, 101));
+        assertEquals(INTENT_HORIZONTAL_OPEN, mClassifier.addSample(1016, 110, 102));
+    }
+
+    @Test
+    public void slowHorizontalMoveNeedsTheTouchSlop() throws Exception {
+        assertEquals(INTENT_TAP, mClassifier.addSample(1050, 110, 100));
+        assertEquals(INTENT_HORIZONTAL_OPEN, mClassifier.addSample(1090, 117, 100));
+    }
+
+    @Test
+    public void leftwardSwipeCloses() throws Exception {
+        assertEquals(INTENT_HORIZONTAL_CLOSE, mClassifier.addSample(1016, 88, 98));
+    }
+
+    @Test
+    public void verticalIsFinal() throws Exception {
+        assertEquals(INTENT_VERTICAL, mClassifier.addSample(1016, 101, 112));
+        // Turning sideways later does not make it horizontal.
+        assertEquals(INTENT_VERTICAL, mClassifier.addSample(1100, 200, 112));
+    }
+
+    @Test
+    public void diagonalStaysUnknown() throws Exception {
+        assertEquals(INTENT_UNKNOWN, mClassifier.addSample(1016, 110, 110));
+    }
+
+    @Test
+    public void longPressIsNotATap() throws Exception {
+        assertEquals(INTENT_TAP, mClassifier.addSample(1050, 101, 100));
+        assertEquals(INTENT_UNKNOWN, mClassifier.addSample(1200, 102, 100));
+    }
+
+    @Test
+    public void startResetsTheIntent() throws Exception {
+        mClassifier.addSample(1016, 101, 112);
+        mClassifier.start(2000, 100, 100);
+
+        assertEquals(INTENT_TAP, mClassifier.getIntent());
+        assertEquals(INTENT_HORIZONTAL_OPEN, mClassifier.addSample(2016, 112, 100));
+    }
+}
@@ -0,0 +1,142 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LeastSquaresVelocityEstimatorTest {
+
+    private static final float DELTA = 0.01f;
+
+    @Test
+    public void constantVelocity() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        for (int i = 0; i <= 10; i++) {
+            // 2 px/ms to the right, 0.5 px/ms up.
+            estimator.addSample(0, 1000 + i * 8, 100 + i * 16, 500 - i * 4);
+        }
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(2000, estimator.getXVelocity(0), DELTA);
+        assertEquals(-500, estimator.getYVelocity(0), DELTA);
+    }
+
+    @Test
+    public void constantAccelerationReportsNewestVelocity() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        for (int i = 0; i <= 10; i++) {
+            final float t = i * 8;
+            // x = 0.01 t^2, so dx/dt = 0.02 t
+            estimator.addSample(0, 1000 + i * 8, 0.01f * t * t, 0);
+        }
+        estimator.computeCurrentVelocity(1, Float.MAX_VALUE);
+
+        assertEquals(0.02f * 80, estimator.getXVelocity(0), DELTA);
+    }
+
+    @Test
+    public void twoSamplesFitALine() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        estimator.addSample(0, 1000, 0, 0);
+        estimator.addSample(0, 1010, 30, 0);
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(3000, estimator.getXVelocity(0), DELTA);
+    }
+
+    @Test
+    public void clampsToMaxVelocity() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        estimator.addSample(0, 1000, 0, 0);
+        estimator.addSample(0, 1010, 100, -100);
+        estimator.computeCurrentVelocity(1000, 8000);
+
+        assertEquals(8000, estimator.getXVelocity(0), DELTA);
+        assertEquals(-8000, estimator.getYVelocity(0), DELTA);
+    }
+
+    @Test
+    public void ignoresSamplesBeforeAPause() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        // Fast, then resting for 50 ms, then slow.
+        estimator.addSample(0, 1000, 0, 0);
+        estimator.addSample(0, 1008, 80, 0);
+        estimator.addSample(0, 1058, 81, 0);
+        estimator.addSample(0, 1066, 82, 0);
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(125, estimator.getXVelocity(0), DELTA);
+    }
+
+    @Test
+    public void pointerLiftedAfterRestingHasNoVelocity() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        for (int i = 0; i <= 5; i++) {
+            estimator.addSample(0, 1000 + i * 8, i * 16, 0);
+        }
+        estimator.addEventTime(1040 + 100);
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(0, estimator.getXVelocity(0), DELTA);
+    }
+
+    @Test
+    public void ringBufferKeepsNewestSamples() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        final int samples = LeastSquaresVelocityEstimator.HISTORY_SIZE * 3;
+        float x = 0;
+        for (int i = 0; i < samples; i++) {
+            // Slow first, 1 px/ms for the last 10 samples.
+            x += i < samples - 10 ? 0.1f : 4;
+            estimator.addSample(0, 1000 + i * 4, x, 0);
+        }
+        estimator.computeCurrentVelocity(1, Float.MAX_VALUE);
+
+        // Older samples were overwritten, the fit sees 10 slow and 10 fast ones.
+        final float velocity = estimator.getXVelocity(0);
+        assertTrue(velocity > 0.5f && velocity <= 1.5f);
+    }
+
+    @Test
+    public void tracksPointersIndependently() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        for (int i = 0; i <= 5; i++) {
+            estimator.addSample(3, 1000 + i * 8, i * 8, 0);
+            estimator.addSample(40, 1000 + i * 8, -i * 16, 0);
+        }
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(1000, estimator.getXVelocity(3), DELTA);
+        assertEquals(-2000, estimator.getXVelocity(40), DELTA);
+        assertEquals(0, estimator.getXVelocity(7), DELTA);
+    }
+
+    @Test
+    public void ignoresPointersBeyondTheSlots() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        final int pointers = LeastSquaresVelocityEstimator.MAX_POINTERS + 1;
+        for (int i = 0; i <= 5; i++) {
+            for (int id = 0; id < pointers; id++) {
+                estimator.addSample(id, 1000 + i * 8, i * 8, 0);
+            }
+        }
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+
+        assertEquals(1000, estimator.getXVelocity(pointers - 2), DELTA);
+        assertEquals(0, estimator.getXVelocity(pointers - 1), DELTA);
+    }
+
+    @Test
+    public void clearForgetsEverything() throws Exception {
+        final LeastSquaresVelocityEstimator estimator = new LeastSquaresVelocityEstimator();
+        estimator.addSample(0, 1000, 0, 0);
+        estimator.addSample(0, 1010, 30, 0);
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        estimator.clear();
+
+        assertEquals(0, estimator.getXVelocity(0), DELTA);
+        estimator.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(0, estimator.getXVelocity(0), DELTA);
+    }
+}
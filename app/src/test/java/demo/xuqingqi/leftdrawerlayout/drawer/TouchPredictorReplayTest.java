@@ -0,0 +1,208 @@
+package demo.xuqingqi.leftdrawerlayout.drawer;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays touch traces through the predictors and checks how far each prediction lands from
+ * where the trace actually was at the predicted time. {@link #report()} prints the errors.
+ *
+ * A trace is a list of (time, x) samples as a touch panel reports them, here shaped after
+ * typical drawer drags on a 120 Hz panel with a pixel of jitter.
+ */
+public class TouchPredictorReplayTest {
+
+    private static final long FRAME = 16; // ms
+    private static final long SAMPLE_INTERVAL = 8; // ms
+
+    @Test
+    public void predictsConstantVelocityExactly() throws Exception {
+        final TouchPredictor[] predictors = {new LinearTouchPredictor(), new KalmanTouchPredictor()};
+        for (TouchPredictor predictor : predictors) {
+            for (int i = 0; i <= 30; i++) {
+                predictor.addSample(1000 + i * SAMPLE_INTERVAL, i * 8, 200 - i * 4);
+            }
+            predictor.predict(1000 + 30 * SAMPLE_INTERVAL + FRAME);
+
+            assertEquals(30 * 8 + 16, predictor.getPredictedX(), 0.5f);
+            assertEquals(200 - 30 * 4 - 8, predictor.getPredictedY(), 0.5f);
+        }
+    }
+
+    @Test
+    public void aggressivenessScalesLookahead() throws Exception {
+        final LinearTouchPredictor predictor = new LinearTouchPredictor();
+        predictor.setAggressiveness(0.5f);
+        predictor.addSample(1000, 0, 0);
+        predictor.addSample(1010, 10, 0);
+        predictor.predict(1010 + 20);
+
+        assertEquals(20, predictor.getPredictedX(), 0.01f);
+
+        predictor.setAggressiveness(0);
+        predictor.predict(1010 + 20);
+        assertEquals(10, predictor.getPredictedX(), 0.01f);
+    }
+
+    @Test
+    public void lookaheadIsCapped() throws Exception {
+        final LinearTouchPredictor predictor = new LinearTouchPredictor();
+        predictor.addSample(1000, 0, 0);
+        predictor.addSample(1010, 10, 0);
+        predictor.predict(1010 + 1000);
+
+        assertEquals(10 + TouchPredictor.MAX_LOOKAHEAD, predictor.getPredictedX(), 0.01f);
+    }
+
+    @Test
+    public void resetForgetsTheGesture() throws Exception {
+        final TouchPredictor[] predictors = {new LinearTouchPredictor(), new KalmanTouchPredictor()};
+        for (TouchPredictor predictor : predictors) {
+            predictor.addSample(1000, 0, 0);
+            predictor.addSample(1010, 100, 0);
+            predictor.reset();
+            predictor.addSample(2000, 50, 0);
+            predictor.predict(2000 + FRAME);
+
+            assertEquals(50, predictor.getPredictedX(), 0.01f);
+        }
+    }
+
+    @Test
+    public void predictionsBeatTheNewestSample() throws Exception {
+        final Trace[] traces = {steadySwipe(), flingOut()};
+        for (Trace trace : traces) {
+            final float unpredicted = replay(trace, null).mean;
+            final float linear = replay(trace, new LinearTouchPredictor()).mean;
+            final float kalman = replay(trace, new KalmanTouchPredictor()).mean;
+            assertTrue(trace.name + " linear", linear < unpredicted);
+            assertTrue(trace.name + " kalman", kalman < unpredicted);
+        }
+    }
+
+    @Ignore("Report, run it by hand")
+    @Test
+    public void report() throws Exception {
+        final Trace[] traces = {steadySwipe(), flingOut(), dragAndRest(), reversal()};
+        for (Trace trace : traces) {
+            System.out.println(String.format("%-12s none %s linear %s kalman %s", trace.name,
+                    replay(trace, null), replay(trace, new LinearTouchPredictor()),
+                    replay(trace, new KalmanTouchPredictor())));
+        }
+    }
+
+    /**
+     * After each sample, predict one frame ahead and compare with the trace at that time. A
+     * null predictor stands for no prediction, the view stays at the newest sample.
+     */
+    private static PredictionError replay(Trace trace, TouchPredictor predictor) {
+        final PredictionError error = new PredictionError();
+        final int count = trace.times.length;
+        final long end = trace.times[count - 1];
+        for (int i = 0; i < count; i++) {
+            final long target = trace.times[i] + FRAME;
+            if (target > end) {
+                break;
+            }
+            float predicted = trace.xs[i];
+            if (predictor != null) {
+                predictor.addSample(trace.times[i], trace.xs[i], 0);
+                predictor.predict(target);
+                predicted = predictor.getPredictedX();
+            }
+            error.add(Math.abs(predicted - trace.xAt(target)));
+        }
+        error.finish();
+        return error;
+    }
+
+    private static Trace steadySwipe() {
+        final Trace trace = new Trace("steady", 300);
+        for (int i = 0; i < trace.times.length; i++) {
+            trace.set(i, 0.8f * trace.times[i]);
+        }
+        return trace;
+    }
+
+    private static Trace flingOut() {
+        final Trace trace = new Trace("fling", 160);
+        for (int i = 0; i < trace.times.length; i++) {
+            final float t = trace.times[i];
+            trace.set(i, 0.02f * t * t);
+        }
+        return trace;
+    }
+
+    private static Trace dragAndRest() {
+        final Trace trace = new Trace("drag-rest", 300);
+        for (int i = 0; i < trace.times.length; i++) {
+            trace.set(i, Math.min(trace.times[i], 150));
+        }
+        return trace;
+    }
+
+    private static Trace reversal() {
+        final Trace trace = new Trace("reversal", 800);
+        for (int i = 0; i < trace.times.length; i++) {
+            trace.set(i, (float) (150 * Math.sin(2 * Math.PI * trace.times[i] / 400)));
+        }
+        return trace;
+    }
+
+    private static final class Trace {
+        final String name;
+        final long[] times;
+        final float[] xs;
+        private final Random mJitter;
+
+        Trace(String name, long duration) {
+            this.name = name;
+            times = new long[(int) (duration / SAMPLE_INTERVAL) + 1];
+            xs = new float[times.length];
+            mJitter = new Random(name.hashCode());
+            for (int i = 0; i < times.length; i++) {
+                times[i] = i * SAMPLE_INTERVAL;
+            }
+        }
+
+        void set(int i, float x) {
+            xs[i] = x + mJitter.nextFloat() - 0.5f;
+        }
+
+        float xAt(long time) {
+            int i = 1;
+            while (i < times.length - 1 && times[i] < time) {
+                i++;
+            }
+            final float f = (float) (time - times[i - 1]) / (times[i] - times[i - 1]);
+            return xs[i - 1] + (xs[i] - xs[i - 1]) * f;
+        }
+    }
+
+    private static final class PredictionError {
+        float mean;
+        float max;
+        private float mSum;
+        private int mCount;
+
+        void add(float error) {
+            mSum += error;
+            mCount++;
+            max = Math.max(max, error);
+        }
+
+        void finish() {
+            mean = mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean %5.2f px max %6.2f px", mean, max);
+        }
+    }
+}